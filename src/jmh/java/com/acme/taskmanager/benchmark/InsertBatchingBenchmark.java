@@ -0,0 +1,168 @@
+package com.acme.taskmanager.benchmark;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.repository.TaskInsertBatcher;
+import com.acme.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of concurrent single task inserts through the {@link TaskInsertBatcher} on an embedded database and a
+ * connection pool, comparing batching windows. A window of 0 disables batching, so every insert is its own statement
+ * and transaction.
+ *
+ * Every invocation issues {@value #INSERTS} inserts with {@code concurrency} of them in flight, like as many
+ * concurrent requests, and the score is the throughput per insert. The latency of every insert is recorded too, and
+ * its p50 and p99 per iteration are reported as the secondary results "p50Millis" and "p99Millis", as they are what
+ * the window trades for the throughput. They are auxiliary counters summed over the benchmark threads, so they only
+ * hold as percentiles with the single benchmark thread.
+ *
+ * The inserts are subscribed from one thread rather than blocking a benchmark thread each, which the synchronous
+ * embedded driver does not cope with on a pool. The logging is raised to INFO, the debug output of the driver would
+ * otherwise dominate the inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final int INSERTS = 256;
+    private static final int USERS = 100;
+    private static final int POOL_SIZE = 10;
+
+    @Param({"0", "1", "5"})
+    private int windowMillis;
+
+    @Param({"100"})
+    private int maxBatchSize;
+
+    @Param({"64"})
+    private int concurrency;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConnectionPool connectionPool;
+    private TaskInsertBatcher taskInsertBatcher;
+
+    @Setup
+    public void setup() {
+        var rootLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(ch.qos.logback.classic.Level.INFO);
+        var database = "insert-benchmark-" + UUID.randomUUID();
+        Flyway.configure()
+                .dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS))
+                .maxSize(POOL_SIZE)
+                .build());
+        var r2dbcEntityTemplate = new R2dbcEntityTemplate(connectionPool);
+        var meterRegistry = new SimpleMeterRegistry();
+        var transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+        var taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        taskInsertBatcher = new TaskInsertBatcher(taskRepository, meterRegistry, windowMillis > 0,
+                Duration.ofMillis(Math.max(1, windowMillis)), maxBatchSize, POOL_SIZE);
+        var databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        for (int i = 1; i <= USERS; i++) {
+            databaseClient.sql("INSERT INTO user (id, username) VALUES (" + i + ", 'user " + i + "')").then().block();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        taskInsertBatcher.stop();
+        connectionPool.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public Long insertTasks(Latency latency) {
+        return Flux.range(0, INSERTS)
+                .flatMap(i -> insertTask(latency.timer), concurrency)
+                .count()
+                .block();
+    }
+
+    private Mono<TaskEntity> insertTask(Timer latency) {
+        var id = sequence.incrementAndGet();
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return taskInsertBatcher.save(new TaskEntity.Builder()
+                            .setUserId(id % USERS + 1)
+                            .setName("task " + id)
+                            .setDescription("description of task " + id)
+                            .build())
+                    .doOnNext(task -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Latency percentiles of the inserts of an iteration, read by JMH from the public getters.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+        private Timer timer;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            timer = Timer.builder("insert.latency")
+                    .publishPercentiles(0.5, 0.99)
+                    .distributionStatisticExpiry(Duration.ofHours(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(new SimpleMeterRegistry());
+        }
+
+        public double p50Millis() {
+            return percentile(0.5);
+        }
+
+        public double p99Millis() {
+            return percentile(0.99);
+        }
+
+        private double percentile(double percentile) {
+            for (var value : timer.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.acme.taskmanager.benchmark;
+
+import com.acme.taskmanager.dto.TaskRequestDto;
+import com.acme.taskmanager.dto.UserRequestDto;
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.mapper.TaskMapper;
+import com.acme.taskmanager.mapper.TaskMapperImpl;
+import com.acme.taskmanager.mapper.UserMapper;
+import com.acme.taskmanager.mapper.UserMapperImpl;
+import com.acme.taskmanager.type.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Mapstruct conversions between task and user DTOs and entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+
+    private final TaskRequestDto taskRequest = new TaskRequestDto("donut", "buy donuts", DATE_TIME, TaskStatus.PENDING);
+    private final UserRequestDto userRequest = new UserRequestDto("homer", "Homer", "Simpson");
+    private final TaskEntity taskEntity = new TaskEntity(2L, 1L, "donut", "buy donuts", DATE_TIME, TaskStatus.PENDING, 3L);
+    private final UserEntity userEntity = new UserEntity(1L, "homer", "Homer", "Simpson", 5L);
+
+    private AnnotationConfigApplicationContext context;
+    private TaskMapper taskMapper;
+    private UserMapper userMapper;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext(TaskMapperImpl.class, UserMapperImpl.class);
+        taskMapper = context.getBean(TaskMapper.class);
+        userMapper = context.getBean(UserMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object taskRequestToEntity() {
+        return taskMapper.toEntity(taskRequest);
+    }
+
+    @Benchmark
+    public Object taskRequestToBuilder() {
+        return taskMapper.toBuilder(taskRequest).setUserId(1L).build();
+    }
+
+    @Benchmark
+    public Object taskEntityToResponse() {
+        return taskMapper.toReponseDto(taskEntity);
+    }
+
+    @Benchmark
+    public Object taskEntityToInfo() {
+        return taskMapper.toInfoDto(taskEntity, userEntity);
+    }
+
+    @Benchmark
+    public Object userRequestToEntity() {
+        return userMapper.toEntity(userRequest);
+    }
+
+    @Benchmark
+    public Object userEntityToInfo() {
+        return userMapper.toInfoDto(userEntity);
+    }
+}
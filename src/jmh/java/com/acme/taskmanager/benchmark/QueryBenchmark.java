@@ -0,0 +1,103 @@
+package com.acme.taskmanager.benchmark;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.SingleConnectionFactory;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Benchmark of the task queries executed on an embedded database, comparing the pre-rendered statements and row
+ * mapper of {@link TaskRepository} with the criteria queries rendered and mapped by {@link R2dbcEntityTemplate}
+ * on every call. Both run the same SQL on the same data and connection, so the difference is the client-side cost
+ * per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final Long USER_ID = 1L;
+    private static final Long TASK_ID = 10L;
+    private static final int TASKS = 20;
+
+    private SingleConnectionFactory connectionFactory;
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+    private TaskRepository taskRepository;
+
+    @Setup
+    public void setup() {
+        Flyway.configure().dataSource("jdbc:h2:mem:benchmark;" + H2_OPTIONS, "sa", "").load().migrate();
+        connectionFactory = new SingleConnectionFactory("r2dbc:h2:mem://sa@/benchmark?options=" + H2_OPTIONS, true);
+        r2dbcEntityTemplate = new R2dbcEntityTemplate(connectionFactory);
+        var meterRegistry = new SimpleMeterRegistry();
+        var transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        var databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        databaseClient.sql("INSERT INTO user (id, username) VALUES (1, 'homer')").then().block();
+        for (int i = 1; i <= TASKS; i++) {
+            databaseClient.sql("INSERT INTO task (id, user_id, name, description) VALUES (" + i + ", 1, 'task " + i
+                    + "', 'description of task " + i + "')").then().block();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public TaskEntity findByIdAndUserIdWithCriteria() {
+        return r2dbcEntityTemplate.selectOne(query(where("id").is(TASK_ID).and("user_id").is(USER_ID)), TaskEntity.class)
+                .block();
+    }
+
+    @Benchmark
+    public TaskEntity findByIdAndUserIdWithTemplate() {
+        return taskRepository.findByIdAndUserId(TASK_ID, USER_ID).block();
+    }
+
+    @Benchmark
+    public Boolean existsByIdAndUserIdWithCriteria() {
+        return r2dbcEntityTemplate.exists(query(where("id").is(TASK_ID).and("user_id").is(USER_ID)), TaskEntity.class)
+                .block();
+    }
+
+    @Benchmark
+    public Boolean existsByIdAndUserIdWithTemplate() {
+        return taskRepository.existsByIdAndUserId(TASK_ID, USER_ID).block();
+    }
+
+    @Benchmark
+    public List<TaskEntity> findAllByUserIdWithCriteria() {
+        return r2dbcEntityTemplate.select(query(where("user_id").is(USER_ID)), TaskEntity.class).collectList().block();
+    }
+
+    @Benchmark
+    public List<TaskEntity> findAllByUserIdWithTemplate() {
+        return taskRepository.findAllByUserId(USER_ID).collectList().block();
+    }
+}
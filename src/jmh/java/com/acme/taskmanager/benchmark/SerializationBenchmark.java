@@ -0,0 +1,69 @@
+package com.acme.taskmanager.benchmark;
+
+import com.acme.taskmanager.dto.TaskInfoDto;
+import com.acme.taskmanager.dto.TaskResponseDto;
+import com.acme.taskmanager.dto.UserInfoDto;
+import com.acme.taskmanager.type.TaskStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Benchmark of the Jackson serialization of task lists, configured like the application's object mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<TaskResponseDto> taskResponses;
+    private List<TaskInfoDto> taskInfos;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var user = new UserInfoDto(1L, "homer", "Homer", "Simpson");
+        taskResponses = LongStream.range(0, size)
+                .mapToObj(id -> new TaskResponseDto(id, "task " + id))
+                .collect(Collectors.toList());
+        taskInfos = LongStream.range(0, size)
+                .mapToObj(id -> new TaskInfoDto(id, "task " + id, "description of task " + id, DATE_TIME.plusMinutes(id),
+                        TaskStatus.PENDING, user))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeTaskResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskResponses);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskInfos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskInfos);
+    }
+}
@@ -0,0 +1,79 @@
+package com.acme.taskmanager.benchmark;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.repository.UserRepository;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building partial UPDATE statements in {@code CriteriaBasedRepository.updateNonNull},
+ * i.e. extracting the outbound row, filtering its non-null columns, rendering the SQL and binding the values.
+ *
+ * The statements are never subscribed to, so no database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateNonNullBenchmark {
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+
+    private final TaskEntity allColumns = new TaskEntity(null, null, "donut", "buy donuts", DATE_TIME, TaskStatus.PENDING, null);
+    private final TaskEntity singleColumn = new TaskEntity.Builder().setStatus(TaskStatus.DONE).build();
+    private final UserEntity user = new UserEntity(null, null, "Homer", "Simpson", null);
+
+    private TaskRepository taskRepository;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setup() {
+        var databaseClient = DatabaseClient.builder()
+                .connectionFactory(H2ConnectionFactory.inMemory("benchmark"))
+                .bindMarkers(MySqlDialect.INSTANCE.getBindMarkersFactory())
+                .build();
+        var r2dbcEntityTemplate = new R2dbcEntityTemplate(databaseClient, MySqlDialect.INSTANCE);
+        var meterRegistry = new SimpleMeterRegistry();
+        var transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+        taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        userRepository = new UserRepository(r2dbcEntityTemplate, meterRegistry);
+    }
+
+    @Benchmark
+    public Object updateAllTaskColumns() {
+        return taskRepository.updateNonNullByIdAndUserId(2L, 1L, allColumns, null);
+    }
+
+    @Benchmark
+    public Object updateSingleTaskColumnWithVersion() {
+        return taskRepository.updateNonNullByIdAndUserId(2L, 1L, singleColumn, 3L);
+    }
+
+    @Benchmark
+    public Object updateUserColumns() {
+        return userRepository.updateNonNull(1L, user);
+    }
+}
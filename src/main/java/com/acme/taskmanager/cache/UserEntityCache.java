@@ -0,0 +1,105 @@
+package com.acme.taskmanager.cache;
+
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.repository.UserLoader;
+import com.acme.taskmanager.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache in front of user lookups by id.
+ *
+ * Unknown ids are cached as negative entries with a shorter TTL. Entries are invalidated
+ * by user writes of this instance, writes of other instances are picked up after the TTL.
+ * Hit, miss and eviction counters are published as the "users" cache metrics.
+ *
+ * Concurrent lookups of an id share one load, and the loads of different ids are batched by the {@link UserLoader}.
+ */
+@Component
+public class UserEntityCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserEntityCache.class);
+
+    private final UserRepository userRepository;
+    private final UserLoader userLoader;
+    private final AsyncCache<Long, Optional<UserEntity>> cache;
+
+    @Autowired
+    public UserEntityCache(UserRepository userRepository,
+                           UserLoader userLoader,
+                           MeterRegistry meterRegistry,
+                           @Value("${user-cache.enabled}") boolean enabled,
+                           @Value("${user-cache.maximum-size}") long maximumSize,
+                           @Value("${user-cache.ttl}") Duration ttl,
+                           @Value("${user-cache.negative-ttl}") Duration negativeTtl) {
+        this.userRepository = userRepository;
+        this.userLoader = userLoader;
+        this.cache = enabled ? CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PositiveAndNegativeExpiry(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync(), "users") : null;
+        LOGGER.info("User cache initialized with enabled={}, maximum-size={}, ttl={} and negative-ttl={}",
+                enabled, maximumSize, ttl, negativeTtl);
+    }
+
+    public Mono<UserEntity> findById(Long userId) {
+        if (cache == null) {
+            return userLoader.findById(userId);
+        }
+        return Mono.defer(() -> Mono.fromFuture(cache.get(userId, (id, executor) -> userLoader.findById(id)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture())))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    public Mono<Boolean> existsById(Long userId) {
+        if (cache == null) {
+            return userRepository.existsById(userId);
+        }
+        return findById(userId).hasElement();
+    }
+
+    public void invalidate(Long userId) {
+        if (cache != null && userId != null) {
+            cache.synchronous().invalidate(userId);
+        }
+    }
+
+    private static class PositiveAndNegativeExpiry implements Expiry<Long, Optional<UserEntity>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PositiveAndNegativeExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long userId, Optional<UserEntity> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Optional<UserEntity> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Optional<UserEntity> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
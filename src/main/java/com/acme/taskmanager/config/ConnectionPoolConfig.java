@@ -0,0 +1,88 @@
+package com.acme.taskmanager.config;
+
+import com.acme.taskmanager.repository.ReadReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Config for the R2DBC connection pool, which is sized by the {@code spring.r2dbc.pool} properties.
+ *
+ * The acquire latency of the pool is timed by wrapping it in a {@link TimedConnectionFactory}. If enabled, the pool
+ * is warmed up to its initial size by an application runner, i.e. before the application reports to be ready,
+ * so the first requests don't wait for new connections. A read replica, see {@link ReadReplicaConfig}, is warmed up
+ * the same way.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConnectionPoolConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+    @Bean
+    public static BeanPostProcessor timedConnectionPoolPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof ConnectionPool
+                        ? new TimedConnectionFactory((ConnectionPool) bean, beanName, meterRegistry)
+                        : bean;
+            }
+
+            @Override
+            public int getOrder() {
+                // before the pool is wrapped by other post processors, e.g. for routing
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "connection-pool.warm-up.enabled", havingValue = "true")
+    public ApplicationRunner connectionPoolWarmUp(ConnectionFactory connectionFactory,
+                                                  @Value("${connection-pool.warm-up.timeout}") Duration timeout) {
+        return args -> {
+            warmUp(unwrapPool(connectionFactory), "connection pool", timeout);
+            var routing = ReadReplicaRoutingConnectionFactory.find(connectionFactory);
+            if (routing != null) {
+                warmUp(unwrapPool(routing.getReplica()), "read replica connection pool", timeout);
+            }
+        };
+    }
+
+    private static void warmUp(ConnectionPool connectionPool, String name, Duration timeout) {
+        if (connectionPool == null) {
+            LOGGER.info("No {} to warm up", name);
+            return;
+        }
+        try {
+            var connections = connectionPool.warmup().block(timeout);
+            LOGGER.info("Warmed up the {} with {} connection(s)", name, connections);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not warm up the " + name + ", connections will be created on demand", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static ConnectionPool unwrapPool(ConnectionFactory connectionFactory) {
+        var unwrapped = connectionFactory;
+        while (!(unwrapped instanceof ConnectionPool) && unwrapped instanceof Wrapped) {
+            unwrapped = ((Wrapped<ConnectionFactory>) unwrapped).unwrap();
+        }
+        return unwrapped instanceof ConnectionPool ? (ConnectionPool) unwrapped : null;
+    }
+
+    interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+    }
+}
@@ -0,0 +1,93 @@
+package com.acme.taskmanager.config;
+
+import com.acme.taskmanager.repository.ReadReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Config for a read replica, which serves the read-only repository operations.
+ *
+ * The connection factory configured by {@code spring.r2dbc} stays the primary and is wrapped in a
+ * {@link ReadReplicaRoutingConnectionFactory}, after it has been wrapped by the {@link ConnectionPoolConfig}. The pool
+ * of the replica is sized like the primary one, its acquire latency and usage are published with the
+ * "replicaConnectionFactory" name.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    static final String REPLICA_NAME = "replicaConnectionFactory";
+
+    @Bean
+    public static BeanPostProcessor readReplicaRoutingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${read-replica.url}") String url,
+            @Value("${read-replica.username}") String username,
+            @Value("${read-replica.password}") String password,
+            @Value("${read-replica.read-your-writes.window}") Duration readYourWritesWindow,
+            @Value("${read-replica.read-your-writes.maximum-size}") long maximumSize,
+            @Value("${spring.r2dbc.pool.initial-size}") int initialSize,
+            @Value("${spring.r2dbc.pool.max-size}") int maxSize,
+            @Value("${spring.r2dbc.pool.max-idle-time}") Duration maxIdleTime,
+            @Value("${spring.r2dbc.pool.max-life-time}") Duration maxLifeTime,
+            @Value("${spring.r2dbc.pool.max-acquire-time}") Duration maxAcquireTime,
+            @Value("${spring.r2dbc.pool.max-create-connection-time}") Duration maxCreateConnectionTime,
+            @Value("${spring.r2dbc.pool.validation-query}") String validationQuery) {
+        return new ConnectionPoolConfig.OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory) || bean instanceof ReadReplicaRoutingConnectionFactory) {
+                    return bean;
+                }
+                var options = ConnectionFactoryOptions.parse(url).mutate()
+                        .option(ConnectionFactoryOptions.USER, username)
+                        .option(ConnectionFactoryOptions.PASSWORD, password)
+                        .build();
+                var replica = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                        .name(REPLICA_NAME)
+                        .initialSize(initialSize)
+                        .maxSize(maxSize)
+                        .maxIdleTime(maxIdleTime)
+                        .maxLifeTime(maxLifeTime)
+                        .maxAcquireTime(maxAcquireTime)
+                        .maxCreateConnectionTime(maxCreateConnectionTime)
+                        .validationQuery(validationQuery)
+                        .build());
+                return new ReadReplicaRoutingConnectionFactory((ConnectionFactory) bean,
+                        new TimedConnectionFactory(replica, REPLICA_NAME, meterRegistry),
+                        readYourWritesWindow, maximumSize, meterRegistry);
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaConnectionPoolMetrics(ConnectionFactory connectionFactory) {
+        return registry -> {
+            var routing = ReadReplicaRoutingConnectionFactory.find(connectionFactory);
+            var replica = routing == null ? null : ConnectionPoolConfig.unwrapPool(routing.getReplica());
+            if (replica != null) {
+                new ConnectionPoolMetrics(replica, REPLICA_NAME, Tags.empty()).bindTo(registry);
+            }
+        };
+    }
+}
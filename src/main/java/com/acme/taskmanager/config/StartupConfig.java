@@ -0,0 +1,61 @@
+package com.acme.taskmanager.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.PostConstruct;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Config for a fast cold start.
+ *
+ * If {@code spring.main.lazy-initialization} is enabled, only the beans needed to serve the first requests
+ * (the controllers and their dependencies), to migrate the database and to run background jobs are created
+ * on startup, all others are created on first use.
+ *
+ * The {@code training} profile starts the application without touching the database and exits once it is ready,
+ * which is used to record the loaded classes for the class data sharing archive of the container image.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupConfig.class);
+
+    @Bean
+    public static LazyInitializationExcludeFilter criticalBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> AnnotatedElementUtils.hasAnnotation(beanType, RestController.class)
+                || ConnectionFactory.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || hasAnnotatedMethod(beanType, Scheduled.class)
+                || hasAnnotatedMethod(beanType, PostConstruct.class);
+    }
+
+    @Bean
+    @Profile("training")
+    public ApplicationListener<ApplicationReadyEvent> trainingRunExit() {
+        return event -> {
+            LOGGER.info("Training run completed, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> beanType, Class<? extends Annotation> annotationType) {
+        var found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, annotationType));
+        return found.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.acme.taskmanager.config;
+
+import com.acme.taskmanager.service.TaskStatisticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Config for a scheduled job reconciling the task statistics with the tasks, which fixes the drift caused by writes
+ * bypassing the repositories. Only the node holding the lease reconciles, so the lease should live longer than
+ * the delay to keep the job on one node.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "task-statistics.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskStatisticsReconciliationConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskStatisticsReconciliationConfig.class);
+
+    private final TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    public TaskStatisticsReconciliationConfig(TaskStatisticsService taskStatisticsService) {
+        this.taskStatisticsService = taskStatisticsService;
+        LOGGER.info("Task statistics reconciliation initialized");
+    }
+
+    @Scheduled(fixedDelayString = "${task-statistics.reconciliation.delay-in-ms}",
+            initialDelayString = "${task-statistics.reconciliation.delay-in-ms}")
+    public void scheduleReconciliation() {
+        taskStatisticsService.reconcile()
+                .subscribe(
+                        count -> LOGGER.info("Reconciled task statistics, {} row(s) written", count),
+                        error -> LOGGER.error("Could not reconcile task statistics", error)
+                );
+    }
+}
@@ -0,0 +1,91 @@
+package com.acme.taskmanager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the latency of acquiring a connection, from the request until the connection is handed out or the request
+ * fails, so it includes the time waiting for a connection of a saturated pool.
+ *
+ * It wraps the pool, so the pool gauges of the actuator, which unwrap the connection factory, keep working.
+ */
+class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+    static final String TIMER = "r2dbc.pool.acquire";
+
+    private final ConnectionFactory delegate;
+    private final String name;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Timer succeeded;
+    private volatile Timer failed;
+
+    TimedConnectionFactory(ConnectionFactory delegate, String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            var registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return Mono.from(delegate.create());
+            }
+            var sample = Timer.start(registry);
+            return Mono.<Connection>from(delegate.create())
+                    .doOnSuccess(connection -> sample.stop(succeeded(registry)))
+                    .doOnError(error -> sample.stop(failed(registry)));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+
+    private Timer succeeded(MeterRegistry registry) {
+        if (succeeded == null) {
+            succeeded = timer(registry, "success");
+        }
+        return succeeded;
+    }
+
+    private Timer failed(MeterRegistry registry) {
+        if (failed == null) {
+            failed = timer(registry, "error");
+        }
+        return failed;
+    }
+
+    private Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder(TIMER)
+                .description("Time to acquire a connection from the pool")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.acme.taskmanager.controller;
+
+import com.acme.taskmanager.dto.TaskBulkCountDto;
+import com.acme.taskmanager.dto.TaskBulkRequestDto;
+import com.acme.taskmanager.dto.TaskBulkResultDto;
+import com.acme.taskmanager.dto.TaskRequestDto;
+import com.acme.taskmanager.service.TaskBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Controller for handling bulk task related endpoints.
+ */
+@RestController
+@RequestMapping("/api/user/{userId}/task/bulk")
+public class TaskBulkController {
+
+    private final TaskBulkService taskBulkService;
+
+    @Autowired
+    public TaskBulkController(TaskBulkService taskBulkService) {
+        this.taskBulkService = taskBulkService;
+    }
+
+    @PostMapping
+    public Flux<TaskBulkResultDto> createTasks(@PathVariable Long userId, @RequestBody List<TaskRequestDto> tasks) {
+        return taskBulkService.createTasks(userId, tasks);
+    }
+
+    @PostMapping("/status")
+    public Mono<TaskBulkCountDto> updateTaskStatus(@PathVariable Long userId, @RequestBody TaskBulkRequestDto request) {
+        return taskBulkService.updateTaskStatus(userId, request);
+    }
+
+    @PostMapping("/delete")
+    public Mono<TaskBulkCountDto> deleteTasks(@PathVariable Long userId, @RequestBody TaskBulkRequestDto request) {
+        return taskBulkService.deleteTasks(userId, request);
+    }
+}
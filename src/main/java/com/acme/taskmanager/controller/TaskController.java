@@ -1,24 +1,41 @@
 package com.acme.taskmanager.controller;
 
+import com.acme.taskmanager.dto.TaskChangeDto;
+import com.acme.taskmanager.dto.TaskFilterDto;
 import com.acme.taskmanager.dto.TaskRequestDto;
 import com.acme.taskmanager.dto.TaskInfoDto;
+import com.acme.taskmanager.dto.TaskPageDto;
 import com.acme.taskmanager.dto.TaskResponseDto;
+import com.acme.taskmanager.dto.TaskStatisticsDto;
+import com.acme.taskmanager.service.TaskChangeFeed;
 import com.acme.taskmanager.service.TaskService;
+import com.acme.taskmanager.service.TaskStatisticsService;
+import com.acme.taskmanager.service.Versioned;
+import com.acme.taskmanager.type.TaskStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 
 /**
  * Controller for handling task related endpoints.
@@ -28,10 +45,15 @@ import javax.validation.Valid;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskStatisticsService taskStatisticsService;
+    private final TaskChangeFeed taskChangeFeed;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskStatisticsService taskStatisticsService,
+                          TaskChangeFeed taskChangeFeed) {
         this.taskService = taskService;
+        this.taskStatisticsService = taskStatisticsService;
+        this.taskChangeFeed = taskChangeFeed;
     }
 
     @PostMapping
@@ -42,8 +64,9 @@ public class TaskController {
 
     @PutMapping("/{taskId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<Void> updateTask(@PathVariable Long userId, @PathVariable Long taskId, @RequestBody TaskRequestDto task) {
-        return taskService.updateTask(userId, taskId, task);
+    public Mono<Void> updateTask(@PathVariable Long userId, @PathVariable Long taskId, @RequestBody TaskRequestDto task,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return taskService.updateTask(userId, taskId, task, Versioned.parseVersion(ifMatch));
     }
 
     @DeleteMapping("/{taskId}")
@@ -52,13 +75,64 @@ public class TaskController {
         return taskService.deleteTask(userId, taskId);
     }
 
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TaskResponseDto> streamAllTasksForAUser(@PathVariable Long userId,
+                                                        @RequestParam(required = false) TaskStatus status,
+                                                        @RequestParam(name = "date_time_from", required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeFrom,
+                                                        @RequestParam(name = "date_time_to", required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeTo,
+                                                        @RequestParam(required = false) String sort) {
+        return taskService.streamAllTasksForAUser(userId, new TaskFilterDto(status, dateTimeFrom, dateTimeTo), sort);
+    }
+
+    @GetMapping("/page")
+    public Mono<TaskPageDto> listTasksForAUser(@PathVariable Long userId,
+                                               @RequestParam(required = false) TaskStatus status,
+                                               @RequestParam(name = "date_time_from", required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeFrom,
+                                               @RequestParam(name = "date_time_to", required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeTo,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return taskService.listTasksForAUser(userId, new TaskFilterDto(status, dateTimeFrom, dateTimeTo), cursor, size);
+    }
+
+    @GetMapping("/search")
+    public Mono<TaskPageDto> searchTasksForAUser(@PathVariable Long userId,
+                                                 @RequestParam String query,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return taskService.searchTasksForAUser(userId, query, cursor, size);
+    }
+
+    @GetMapping("/statistics")
+    public Mono<TaskStatisticsDto> getTaskStatistics(@PathVariable Long userId) {
+        return taskStatisticsService.getStatistics(userId);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TaskChangeDto>> streamTaskChanges(@PathVariable Long userId) {
+        return taskChangeFeed.subscribe(userId);
+    }
+
     @GetMapping("/{taskId}")
-    public Mono<TaskInfoDto> getTaskInfo(@PathVariable Long userId, @PathVariable Long taskId) {
-        return taskService.getTaskInfo(userId, taskId);
+    public Mono<ResponseEntity<TaskInfoDto>> getTaskInfo(@PathVariable Long userId, @PathVariable Long taskId,
+                                                         ServerWebExchange exchange) {
+        return taskService.getTaskInfo(userId, taskId)
+                .map(versioned -> exchange.checkNotModified(versioned.getETag())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versioned.getETag()).build()
+                        : ResponseEntity.ok().eTag(versioned.getETag()).body(versioned.getBody()));
     }
 
     @GetMapping
-    public Flux<TaskResponseDto> listAllTasksForAUser(@PathVariable Long userId) {
-        return taskService.listAllTasksForAUser(userId);
+    public Flux<TaskResponseDto> listAllTasksForAUser(@PathVariable Long userId,
+                                                      @RequestParam(required = false) TaskStatus status,
+                                                      @RequestParam(name = "date_time_from", required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeFrom,
+                                                      @RequestParam(name = "date_time_to", required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTimeTo,
+                                                      @RequestParam(required = false) String sort) {
+        return taskService.listAllTasksForAUser(userId, new TaskFilterDto(status, dateTimeFrom, dateTimeTo), sort);
     }
 }
@@ -4,16 +4,22 @@ import com.acme.taskmanager.dto.UserRequestDto;
 import com.acme.taskmanager.dto.UserInfoDto;
 import com.acme.taskmanager.dto.UserResponseDto;
 import com.acme.taskmanager.service.UserService;
+import com.acme.taskmanager.service.Versioned;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -41,17 +47,26 @@ public class UserController {
 
     @PutMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<Void> updateUser(@PathVariable Long userId, @RequestBody UserRequestDto user) {
-        return userService.updateUser(userId, user);
+    public Mono<Void> updateUser(@PathVariable Long userId, @RequestBody UserRequestDto user,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.updateUser(userId, user, Versioned.parseVersion(ifMatch));
     }
 
     @GetMapping("/{userId}")
-    public Mono<UserInfoDto> getUserInfo(@PathVariable Long userId) {
-        return userService.getUserInfo(userId);
+    public Mono<ResponseEntity<UserInfoDto>> getUserInfo(@PathVariable Long userId, ServerWebExchange exchange) {
+        return userService.getUserInfo(userId)
+                .map(versioned -> exchange.checkNotModified(versioned.getETag())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versioned.getETag()).build()
+                        : ResponseEntity.ok().eTag(versioned.getETag()).body(versioned.getBody()));
     }
 
     @GetMapping
     public Flux<UserResponseDto> listAllUsers() {
         return userService.listAllUsers();
     }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserResponseDto> streamAllUsers() {
+        return userService.streamAllUsers();
+    }
 }
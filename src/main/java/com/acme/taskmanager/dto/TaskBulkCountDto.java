@@ -0,0 +1,21 @@
+package com.acme.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class to represent the number of tasks affected by a bulk request.
+ */
+public class TaskBulkCountDto {
+
+    private final Integer affected;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskBulkCountDto(@JsonProperty("affected") Integer affected) {
+        this.affected = affected;
+    }
+
+    public Integer getAffected() {
+        return affected;
+    }
+}
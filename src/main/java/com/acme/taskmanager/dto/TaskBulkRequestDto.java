@@ -0,0 +1,42 @@
+package com.acme.taskmanager.dto;
+
+import com.acme.taskmanager.type.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Class to represent a bulk task request DTO, which selects tasks either by ids or by a filter.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskBulkRequestDto {
+
+    private final List<Long> ids;
+
+    private final TaskFilterDto filter;
+
+    private final TaskStatus status;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskBulkRequestDto(@JsonProperty("ids") List<Long> ids,
+                              @JsonProperty("filter") TaskFilterDto filter,
+                              @JsonProperty("status") TaskStatus status) {
+        this.ids = ids;
+        this.filter = filter;
+        this.status = status;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public TaskFilterDto getFilter() {
+        return filter;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+}
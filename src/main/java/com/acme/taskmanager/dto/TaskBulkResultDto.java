@@ -0,0 +1,52 @@
+package com.acme.taskmanager.dto;
+
+import com.acme.taskmanager.type.BulkItemStatus;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class to represent the result of a single item of a bulk task request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskBulkResultDto {
+
+    private final Integer index;
+    private final Long id;
+    private final String name;
+    private final BulkItemStatus status;
+    private final String message;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskBulkResultDto(@JsonProperty("index") Integer index,
+                             @JsonProperty("id") Long id,
+                             @JsonProperty("name") String name,
+                             @JsonProperty("status") BulkItemStatus status,
+                             @JsonProperty("message") String message) {
+        this.index = index;
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.message = message;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkItemStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,47 @@
+package com.acme.taskmanager.dto;
+
+import com.acme.taskmanager.type.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Class to represent a task filter DTO, all conditions are optional and combined with AND.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskFilterDto {
+
+    private final TaskStatus status;
+
+    @JsonProperty("date_time_from")
+    private final LocalDateTime dateTimeFrom;
+
+    @JsonProperty("date_time_to")
+    private final LocalDateTime dateTimeTo;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskFilterDto(@JsonProperty("status") TaskStatus status,
+                         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+                         @JsonProperty("date_time_from") LocalDateTime dateTimeFrom,
+                         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+                         @JsonProperty("date_time_to") LocalDateTime dateTimeTo) {
+        this.status = status;
+        this.dateTimeFrom = dateTimeFrom;
+        this.dateTimeTo = dateTimeTo;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getDateTimeFrom() {
+        return dateTimeFrom;
+    }
+
+    public LocalDateTime getDateTimeTo() {
+        return dateTimeTo;
+    }
+}
@@ -0,0 +1,34 @@
+package com.acme.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Class to represent a page of tasks with an opaque continuation token.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskPageDto {
+
+    private final List<TaskResponseDto> tasks;
+
+    @JsonProperty("next_cursor")
+    private final String nextCursor;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskPageDto(@JsonProperty("tasks") List<TaskResponseDto> tasks,
+                       @JsonProperty("next_cursor") String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TaskResponseDto> getTasks() {
+        return tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
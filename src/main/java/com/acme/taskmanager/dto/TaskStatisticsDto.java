@@ -0,0 +1,41 @@
+package com.acme.taskmanager.dto;
+
+import com.acme.taskmanager.type.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Class to represent the number of tasks of a user, in total, by status and overdue.
+ */
+public class TaskStatisticsDto {
+
+    private final Long total;
+
+    @JsonProperty("by_status")
+    private final Map<TaskStatus, Long> byStatus;
+
+    private final Long overdue;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public TaskStatisticsDto(@JsonProperty("total") Long total,
+                             @JsonProperty("by_status") Map<TaskStatus, Long> byStatus,
+                             @JsonProperty("overdue") Long overdue) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.overdue = overdue;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public Map<TaskStatus, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public Long getOverdue() {
+        return overdue;
+    }
+}
@@ -2,6 +2,7 @@ package com.acme.taskmanager.entity;
 
 import com.acme.taskmanager.type.TaskStatus;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -28,13 +29,18 @@ public class TaskEntity {
 
     private final TaskStatus status;
 
-    public TaskEntity(Long id, Long userId, String name, String description, LocalDateTime dateTime, TaskStatus status) {
+    @Version
+    private final Long version;
+
+    public TaskEntity(Long id, Long userId, String name, String description, LocalDateTime dateTime, TaskStatus status,
+                      Long version) {
         this.id = id;
         this.userId = userId;
         this.name = name;
         this.description = description;
         this.dateTime = dateTime;
         this.status = status;
+        this.version = version;
     }
 
     public Long getId() {
@@ -61,6 +67,10 @@ public class TaskEntity {
         return status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public static class Builder {
         private Long id;
         private Long userId;
@@ -68,6 +78,7 @@ public class TaskEntity {
         private String description;
         private LocalDateTime dateTime;
         private TaskStatus status;
+        private Long version;
 
         public Builder setId(Long id) {
             this.id = id;
@@ -99,8 +110,13 @@ public class TaskEntity {
             return this;
         }
 
+        public Builder setVersion(Long version) {
+            this.version = version;
+            return this;
+        }
+
         public TaskEntity build() {
-            return new TaskEntity(id, userId, name, description, dateTime, status);
+            return new TaskEntity(id, userId, name, description, dateTime, status, version);
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.acme.taskmanager.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -22,11 +23,15 @@ public class UserEntity {
     @Column("last_name")
     private final String lastName;
 
-    public UserEntity(Long id, String username, String firstName, String lastName) {
+    @Version
+    private final Long version;
+
+    public UserEntity(Long id, String username, String firstName, String lastName, Long version) {
         this.id = id;
         this.username = username;
         this.firstName = firstName;
         this.lastName = lastName;
+        this.version = version;
     }
 
     public Long getId() {
@@ -44,4 +49,8 @@ public class UserEntity {
     public String getLastName() {
         return lastName;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
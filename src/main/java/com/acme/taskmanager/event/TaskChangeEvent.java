@@ -0,0 +1,41 @@
+package com.acme.taskmanager.event;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.type.TaskChangeType;
+
+/**
+ * Application event published after a task of a user has been changed by this instance.
+ *
+ * The task holds the written columns only: all of them for created tasks, the non-null ones of a partial update,
+ * the status of expired tasks and nothing for deleted tasks. Bulk writes publish a single {@link TaskChangeType#RESYNC}
+ * change of the user instead, without task id and task.
+ */
+public class TaskChangeEvent {
+    private final TaskChangeType type;
+    private final Long userId;
+    private final Long taskId;
+    private final TaskEntity task;
+
+    public TaskChangeEvent(TaskChangeType type, Long userId, Long taskId, TaskEntity task) {
+        this.type = type;
+        this.userId = userId;
+        this.taskId = taskId;
+        this.task = task;
+    }
+
+    public TaskChangeType getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public TaskEntity getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,11 @@
+package com.acme.taskmanager.exception;
+
+/**
+ * Exceptions for conditional requests, whose entity version does not match the expected one.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
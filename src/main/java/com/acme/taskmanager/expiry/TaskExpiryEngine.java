@@ -0,0 +1,196 @@
+package com.acme.taskmanager.expiry;
+
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.service.ExpiredTaskSweeper;
+import com.acme.taskmanager.type.TaskChangeType;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Expires pending tasks at their deadline, i.e. their date time plus the expiration, instead of polling for them.
+ *
+ * Deadlines within the horizon are kept in a {@link TimingWheel}, which is fed by the task changes of this instance
+ * and by a low-frequency reconciliation. The reconciliation drains the overdue backlog with the
+ * {@link ExpiredTaskSweeper} and, on the node holding its lease, loads the deadlines coming within the horizon.
+ * Reached deadlines are expired in batches by a statement which skips tasks changed meanwhile outside this instance,
+ * the expired tasks are published as {@link TaskChangeType#EXPIRED} changes.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(value = "task-expiry.enabled", havingValue = "true")
+public class TaskExpiryEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskExpiryEngine.class);
+    private static final int LEVELS = 4;
+
+    private final TaskRepository taskRepository;
+    private final ExpiredTaskSweeper expiredTaskSweeper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration expiration;
+    private final Duration tick;
+    private final Duration horizon;
+    private final Integer batchSize;
+    private final TimingWheel timingWheel;
+    private final Counter expiredTasks;
+    private Disposable ticker;
+
+    @Autowired
+    public TaskExpiryEngine(TaskRepository taskRepository,
+                            ExpiredTaskSweeper expiredTaskSweeper,
+                            MeterRegistry meterRegistry,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${expired-task-scheduler.expiration}") Duration expiration,
+                            @Value("${task-expiry.tick}") Duration tick,
+                            @Value("${task-expiry.horizon}") Duration horizon,
+                            @Value("${task-expiry.batch-size}") Integer batchSize) {
+        this.taskRepository = taskRepository;
+        this.expiredTaskSweeper = expiredTaskSweeper;
+        this.eventPublisher = eventPublisher;
+        this.expiration = expiration;
+        this.tick = tick;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        this.timingWheel = new TimingWheel(tick.toMillis(), LEVELS, System.currentTimeMillis());
+        if (horizon.toMillis() > timingWheel.getRangeMillis()) {
+            throw new IllegalArgumentException("horizon must not exceed " + Duration.ofMillis(timingWheel.getRangeMillis()));
+        }
+        this.expiredTasks = Counter.builder("task.expiry.expired")
+                .description("Number of tasks expired at their deadline")
+                .register(meterRegistry);
+        Gauge.builder("task.expiry.scheduled", this, TaskExpiryEngine::size)
+                .description("Number of deadlines in the timing wheel")
+                .register(meterRegistry);
+        LOGGER.info("Task expiry engine initialized with tick={} and horizon={}", tick, horizon);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Flux.interval(tick)
+                .onBackpressureDrop()
+                .concatMap(ignored -> expireDue(System.currentTimeMillis()))
+                .subscribe(
+                        count -> LOGGER.info("Expired {} task(s) at their deadline", count),
+                        error -> LOGGER.error("Task expiry engine stopped", error)
+                );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.dispose();
+        }
+    }
+
+    @EventListener
+    public void onTaskChange(TaskChangeEvent event) {
+        if (event.getType() == TaskChangeType.RESYNC) {
+            // deadlines of bulk created tasks are loaded by the reconciliation, the others are skipped on expiry
+            return;
+        }
+        var task = event.getTask();
+        if (event.getType() == TaskChangeType.DELETED || task.getStatus() != null && task.getStatus() != TaskStatus.PENDING) {
+            cancel(event.getTaskId());
+        } else if (task.getDateTime() != null) {
+            track(event.getTaskId(), task.getDateTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${task-expiry.reconciliation-delay-in-ms}")
+    public void scheduleReconciliation() {
+        reconcile().subscribe(
+                count -> LOGGER.info("Loaded {} upcoming task deadline(s)", count),
+                error -> LOGGER.error("Could not reconcile task deadlines", error)
+        );
+    }
+
+    /**
+     * Drains the overdue tasks and loads the upcoming deadlines, completes empty if another node holds the lease.
+     */
+    Mono<Long> reconcile() {
+        return expiredTaskSweeper.sweep()
+                .flatMap(swept -> {
+                    var expirationDateTime = LocalDateTime.now().minus(expiration);
+                    return taskRepository.findPendingTasksBetweenDateTimes(expirationDateTime, expirationDateTime.plus(horizon))
+                            .doOnNext(task -> track(task.getId(), task.getDateTime()))
+                            .count();
+                });
+    }
+
+    /**
+     * Expires the tasks whose deadline has been reached by the given time and emits their number,
+     * completes empty if no deadline has been reached.
+     */
+    Mono<Integer> expireDue(long nowMillis) {
+        return Mono.defer(() -> {
+            var due = advance(nowMillis);
+            if (due.isEmpty()) {
+                return Mono.empty();
+            }
+            var expirationDateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), ZoneId.systemDefault())
+                    .minus(expiration);
+            return Flux.fromIterable(due)
+                    .buffer(batchSize)
+                    .concatMap(taskIds -> taskRepository.updatePendingTasksByIdInBeforeDateTime(taskIds, expirationDateTime, TaskStatus.DONE)
+                            .doOnNext(tasks -> tasks.forEach(task -> eventPublisher.publishEvent(
+                                    new TaskChangeEvent(TaskChangeType.EXPIRED, task.getUserId(), task.getId(), task))))
+                            .map(List::size)
+                            // the tasks stay pending until the next reconciliation
+                            .onErrorResume(error -> {
+                                LOGGER.error("Could not expire tasks with ids=" + taskIds, error);
+                                return Mono.just(0);
+                            }))
+                    .reduce(0, Integer::sum)
+                    .doOnNext(expiredTasks::increment);
+        });
+    }
+
+    int size() {
+        synchronized (timingWheel) {
+            return timingWheel.size();
+        }
+    }
+
+    private List<Long> advance(long nowMillis) {
+        synchronized (timingWheel) {
+            return timingWheel.advance(nowMillis);
+        }
+    }
+
+    private void track(Long taskId, LocalDateTime dateTime) {
+        var deadlineMillis = dateTime.plus(expiration).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (timingWheel) {
+            if (deadlineMillis - System.currentTimeMillis() > horizon.toMillis() || !timingWheel.schedule(taskId, deadlineMillis)) {
+                timingWheel.cancel(taskId);
+            }
+        }
+    }
+
+    private void cancel(Long taskId) {
+        synchronized (timingWheel) {
+            timingWheel.cancel(taskId);
+        }
+    }
+}
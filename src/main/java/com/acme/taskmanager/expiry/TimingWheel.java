@@ -0,0 +1,146 @@
+package com.acme.taskmanager.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of deadlines keyed by id.
+ *
+ * Deadlines are rounded up to ticks. A deadline is kept on the lowest level whose slot still shares
+ * all higher digits (in base {@code 2^SLOT_BITS}) with the current tick, the top level wraps around.
+ * A slot is moved down a level when the current tick reaches it, so scheduling, cancelling and firing
+ * are O(1) per id. Deadlines beyond the range of the top level are rejected.
+ *
+ * Not thread-safe.
+ */
+class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<Map<Long, Long>>> wheels;
+    private final Map<Long, Map<Long, Long>> bucketsById = new HashMap<>();
+    private final List<Long> overdue = new ArrayList<>();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int levels, long nowMillis) {
+        if (tickMillis < 1 || levels < 1 || levels * SLOT_BITS > 48) {
+            throw new IllegalArgumentException("invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.wheels = new ArrayList<>(levels);
+        for (int level = 0; level < levels; level++) {
+            var slots = new ArrayList<Map<Long, Long>>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashMap<>());
+            }
+            wheels.add(slots);
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Returns the time span in milliseconds, which is always covered ahead of the current tick.
+     */
+    long getRangeMillis() {
+        return ((long) (SLOTS - 1) << ((levels - 1) * SLOT_BITS)) * tickMillis;
+    }
+
+    /**
+     * Schedules or reschedules the id, returns {@code false} if the deadline is beyond the range of the wheel.
+     * Ids with a deadline already passed are fired on the next advance.
+     */
+    boolean schedule(Long id, long deadlineMillis) {
+        cancel(id);
+        var deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick <= currentTick) {
+            overdue.add(id);
+            return true;
+        }
+        return place(id, deadlineTick);
+    }
+
+    /**
+     * Removes the id, returns {@code false} if it was not scheduled.
+     */
+    boolean cancel(Long id) {
+        var bucket = bucketsById.remove(id);
+        if (bucket != null) {
+            bucket.remove(id);
+            return true;
+        }
+        return overdue.remove(id);
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns the ids whose deadline has been reached.
+     */
+    List<Long> advance(long nowMillis) {
+        var due = new ArrayList<>(overdue);
+        overdue.clear();
+        var targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                    cascade(level, due);
+                }
+            }
+            var bucket = slotOf(0, currentTick);
+            for (var id : bucket.keySet()) {
+                bucketsById.remove(id);
+                due.add(id);
+            }
+            bucket.clear();
+        }
+        return due;
+    }
+
+    int size() {
+        return bucketsById.size() + overdue.size();
+    }
+
+    /**
+     * Moves the deadlines of the current slot of a level to the lower levels.
+     */
+    private void cascade(int level, List<Long> due) {
+        var bucket = slotOf(level, currentTick);
+        var entries = new ArrayList<>(bucket.entrySet());
+        bucket.clear();
+        for (var entry : entries) {
+            bucketsById.remove(entry.getKey());
+            if (entry.getValue() < currentTick) {
+                due.add(entry.getKey());
+            } else {
+                place(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private boolean place(Long id, long deadlineTick) {
+        for (int level = 0; level < levels - 1; level++) {
+            var higherDigits = (level + 1) * SLOT_BITS;
+            if ((deadlineTick >>> higherDigits) == (currentTick >>> higherDigits)) {
+                return place(id, deadlineTick, level);
+            }
+        }
+        var topDigits = (levels - 1) * SLOT_BITS;
+        return (deadlineTick >>> topDigits) - (currentTick >>> topDigits) < SLOTS && place(id, deadlineTick, levels - 1);
+    }
+
+    private boolean place(Long id, long deadlineTick, int level) {
+        var bucket = slotOf(level, deadlineTick);
+        bucket.put(id, deadlineTick);
+        bucketsById.put(id, bucket);
+        return true;
+    }
+
+    private Map<Long, Long> slotOf(int level, long tick) {
+        return wheels.get(level).get((int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK));
+    }
+}
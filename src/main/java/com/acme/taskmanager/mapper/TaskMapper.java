@@ -1,10 +1,12 @@
 package com.acme.taskmanager.mapper;
 
+import com.acme.taskmanager.dto.TaskChangeDto;
 import com.acme.taskmanager.dto.TaskRequestDto;
 import com.acme.taskmanager.dto.TaskInfoDto;
 import com.acme.taskmanager.dto.TaskResponseDto;
 import com.acme.taskmanager.entity.TaskEntity;
 import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -23,4 +25,11 @@ public interface TaskMapper {
     @Mapping(source = "taskEntity.id", target = "id")
     @Mapping(source = "userEntity", target = "user")
     TaskInfoDto toInfoDto(TaskEntity taskEntity, UserEntity userEntity);
+
+    @Mapping(source = "taskId", target = "id")
+    @Mapping(source = "task.name", target = "name")
+    @Mapping(source = "task.description", target = "description")
+    @Mapping(source = "task.dateTime", target = "dateTime")
+    @Mapping(source = "task.status", target = "status")
+    TaskChangeDto toChangeDto(TaskChangeEvent event);
 }
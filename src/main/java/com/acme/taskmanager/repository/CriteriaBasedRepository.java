@@ -1,17 +1,26 @@
 package com.acme.taskmanager.repository;
 
 import com.acme.taskmanager.exception.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.springframework.data.relational.core.query.Query.query;
 import static org.springframework.data.relational.core.query.Criteria.where;
-import static org.springframework.data.relational.core.query.Update.from;
 
 /**
  * CRUD repository for entities.
@@ -19,51 +28,200 @@ import static org.springframework.data.relational.core.query.Update.from;
  * Provides an alternative to {@link org.springframework.data.repository.reactive.ReactiveCrudRepository},
  * using {@link R2dbcEntityTemplate} which provides more control on queries and criteria.
  *
+ * Read-only operations are routed to the read replica if one is configured, see
+ * {@link ReadReplicaRoutingConnectionFactory}. Repositories of entities owned by a user tell the owner of ids and
+ * entities, so reads of a user stick to the primary after writes of that user.
+ *
  * @param <T> the type of entity
  * @param <ID> the id type
  */
 public abstract class CriteriaBasedRepository<T, ID> {
     protected final R2dbcEntityTemplate r2dbcEntityTemplate;
     protected final String identifier;
+    protected final String table;
+    protected final String versionColumn;
+    protected final RepositoryMetrics metrics;
+    protected final ReadRouting readRouting;
+    private final BindMarkersFactory bindMarkersFactory;
+    private final EntityRowMapper<T> rowMapper;
+    private final PartialUpdateStatements<T> partialUpdates;
+    private final String findAllSql;
+    private final String findByIdSql;
+    private final String existsByIdSql;
 
-    protected CriteriaBasedRepository(R2dbcEntityTemplate r2dbcEntityTemplate) {
+    protected CriteriaBasedRepository(R2dbcEntityTemplate r2dbcEntityTemplate, MeterRegistry meterRegistry) {
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.identifier = r2dbcEntityTemplate.getDataAccessStrategy().getIdentifierColumns(getEntityClass()).stream()
                 .findFirst()
                 .map(SqlIdentifier::getReference)
                 .orElseThrow(() -> new IllegalArgumentException("identifier must be defined"));
+        var persistentEntity = r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(getEntityClass());
+        this.table = persistentEntity.getTableName().getReference();
+        this.versionColumn = persistentEntity.hasVersionProperty()
+                ? persistentEntity.getRequiredVersionProperty().getColumnName().getReference()
+                : null;
+        this.metrics = new RepositoryMetrics(meterRegistry, table);
+        this.readRouting = ReadRouting.of(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory());
+        this.bindMarkersFactory = DialectResolver.getDialect(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory())
+                .getBindMarkersFactory();
+        this.rowMapper = new EntityRowMapper<>(r2dbcEntityTemplate.getConverter(), persistentEntity, getEntityClass());
+        this.partialUpdates = new PartialUpdateStatements<>(r2dbcEntityTemplate.getConverter(), persistentEntity,
+                bindMarkersFactory);
+        this.findAllSql = renderSelect(bindMarkers -> "");
+        this.findByIdSql = renderSelect(bindMarkers -> whereEqual(bindMarkers, identifier));
+        this.existsByIdSql = renderExists(bindMarkers -> whereEqual(bindMarkers, identifier));
     }
 
     public abstract Class<T> getEntityClass();
 
+    /**
+     * Returns the user owning the entity with the given id, null if the id does not tell.
+     */
+    protected Long getOwnerId(ID id) {
+        return null;
+    }
+
+    /**
+     * Returns the user owning the entity, null if the entity does not tell.
+     */
+    protected Long getOwnerIdOfEntity(T entity) {
+        return null;
+    }
+
     public Mono<T> save(T entity) {
-        return r2dbcEntityTemplate.insert(entity);
+        return metrics.timed("save", readRouting.write(this::getOwnerIdOfEntity, r2dbcEntityTemplate.insert(entity)));
     }
 
     public Mono<Boolean> existsById(ID id) {
-        return r2dbcEntityTemplate.exists(query(where(identifier).is(id)), getEntityClass());
+        return metrics.timed("existsById", readRouting.readOnly(getOwnerId(id), exists(existsByIdSql, id)));
     }
 
     public Mono<T> findById(ID id) {
-        return r2dbcEntityTemplate.selectOne(query(where(identifier).is(id)), getEntityClass());
+        return metrics.timed("findById", readRouting.readOnly(getOwnerId(id), selectOne(findByIdSql, id)));
+    }
+
+    /**
+     * Finds the entities with the given ids with a single query, in no particular order and skipping unknown ids.
+     * The reads stick to the primary if any of their users has written recently.
+     */
+    public Flux<T> findAllById(Collection<ID> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        var sql = renderSelect(bindMarkers -> whereIn(bindMarkers, identifier, ids.size()));
+        return metrics.timed("findAllById", readRouting.readOnlyForUsers(
+                ids.stream().map(this::getOwnerId).collect(Collectors.toList()), select(sql, ids.toArray())));
     }
 
     public Flux<T> findAll() {
-        return r2dbcEntityTemplate.select(getEntityClass()).all();
+        return metrics.timed("findAll", readRouting.readOnly(null, select(findAllSql)));
     }
 
     public Mono<Integer> updateNonNull(ID id, T entity) {
-        var outboundRow = r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity);
-        Map<SqlIdentifier, Object> assignments = outboundRow.entrySet().stream()
-                .filter(entry -> entry.getValue().hasValue())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        return r2dbcEntityTemplate.update(getEntityClass())
-                .matching(query(where(identifier).is(id)))
-                .apply(from(assignments));
+        return updateNonNull(id, entity, null);
+    }
+
+    /**
+     * Updates the non-null columns of the entity, if the expected version is given
+     * the row is only updated if it still has that version.
+     */
+    public Mono<Integer> updateNonNull(ID id, T entity, Long expectedVersion) {
+        return metrics.timed("updateNonNull", readRouting.write(getOwnerId(id),
+                updateNonNull(Map.of(identifier, id), expectedVersion, entity)));
     }
 
     public Mono<Void> deleteById(ID id) {
-        return r2dbcEntityTemplate.delete(query(where(identifier).is(id)), getEntityClass())
+        return metrics.timed("deleteById", readRouting.write(getOwnerId(id), delete(where(identifier).is(id))));
+    }
+
+    /**
+     * Updates the non-null columns of the entity in the rows matching all column conditions with a single statement,
+     * incrementing the version column of versioned entities. The returned count is the number of matched rows,
+     * so existence, ownership and version checks belong to the conditions.
+     */
+    protected Mono<Integer> updateNonNull(Map<String, Object> conditions, Long expectedVersion, T entity) {
+        var spec = partialUpdates.prepare(r2dbcEntityTemplate.getDatabaseClient(), conditions, expectedVersion, entity);
+        if (spec == null) {
+            var allConditions = new LinkedHashMap<>(conditions);
+            if (expectedVersion != null) {
+                allConditions.put(versionColumn, expectedVersion);
+            }
+            return r2dbcEntityTemplate.exists(query(toCriteria(allConditions)), getEntityClass())
+                    .map(exists -> exists ? 1 : 0);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Renders a SELECT of the mapped columns followed by the given clause, with the bind markers of the database.
+     * Statements are meant to be rendered once and executed with {@link #select} or {@link #selectOne},
+     * binding their values in the order of the markers.
+     */
+    protected String renderSelect(Function<BindMarkers, String> clause) {
+        var rendered = clause.apply(bindMarkersFactory.create());
+        return "SELECT " + rowMapper.getColumns() + " FROM " + table + (rendered.isEmpty() ? "" : " " + rendered);
+    }
+
+    /**
+     * Renders a query for the existence of a row matching the given clause, to be executed with {@link #exists}.
+     */
+    protected String renderExists(Function<BindMarkers, String> clause) {
+        return "SELECT " + identifier + " FROM " + table + " " + clause.apply(bindMarkersFactory.create()) + " LIMIT 1";
+    }
+
+    /**
+     * Renders a WHERE clause matching all given columns.
+     */
+    protected static String whereEqual(BindMarkers bindMarkers, String... columns) {
+        var predicate = new StringJoiner(" AND ", "WHERE ", "");
+        for (var column : columns) {
+            predicate.add(column + " = " + bindMarkers.next().getPlaceholder());
+        }
+        return predicate.toString();
+    }
+
+    /**
+     * Renders a WHERE clause matching the given number of values of a column.
+     */
+    protected static String whereIn(BindMarkers bindMarkers, String column, int count) {
+        var values = new StringJoiner(", ", "WHERE " + column + " IN (", ")");
+        for (int index = 0; index < count; index++) {
+            values.add(bindMarkers.next().getPlaceholder());
+        }
+        return values.toString();
+    }
+
+    protected Flux<T> select(String sql, Object... values) {
+        return statement(sql, values).map(rowMapper).all();
+    }
+
+    protected Mono<T> selectOne(String sql, Object... values) {
+        return statement(sql, values).map(rowMapper).one();
+    }
+
+    protected Mono<Boolean> exists(String sql, Object... values) {
+        return statement(sql, values).map((row, metadata) -> true).first().defaultIfEmpty(false);
+    }
+
+    protected Mono<Void> delete(Criteria criteria) {
+        return r2dbcEntityTemplate.delete(query(criteria), getEntityClass())
                 .flatMap(count -> count > 0 ? Mono.empty() : Mono.error(new EntityNotFoundException("entity not found")));
     }
+
+    private DatabaseClient.GenericExecuteSpec statement(String sql, Object... values) {
+        return r2dbcEntityTemplate.getDatabaseClient().sql(sql).filter(statement -> {
+            for (int index = 0; index < values.length; index++) {
+                statement.bind(index, values[index]);
+            }
+            return statement;
+        });
+    }
+
+    private static Criteria toCriteria(Map<String, Object> conditions) {
+        var criteria = Criteria.empty();
+        for (var condition : conditions.entrySet()) {
+            criteria = criteria.and(condition.getKey()).is(condition.getValue());
+        }
+        return criteria;
+    }
 }
@@ -0,0 +1,118 @@
+package com.acme.taskmanager.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.util.TypeInformation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.BiFunction;
+
+/**
+ * Maps the rows selecting {@link #getColumns()} to entities.
+ *
+ * The columns are listed in the order of the persistence constructor parameters, so a row is read by position
+ * and passed to the constructor through a method handle compiled once per entity class, instead of resolving
+ * every column by name and every parameter by reflection as the generic converter does. Entities that are not
+ * fully initialized by their constructor fall back to the converter.
+ *
+ * @param <T> the type of entity
+ */
+final class EntityRowMapper<T> implements BiFunction<Row, RowMetadata, T> {
+    private final Class<T> entityClass;
+    private final R2dbcConverter converter;
+    private final String columns;
+    private final List<TypeInformation<?>> types = new ArrayList<>();
+    private final MethodHandle constructor;
+
+    EntityRowMapper(R2dbcConverter converter, RelationalPersistentEntity<?> persistentEntity, Class<T> entityClass) {
+        this.entityClass = entityClass;
+        this.converter = converter;
+        var names = new StringJoiner(", ");
+        var instanceCreator = persistentEntity.getInstanceCreatorMetadata();
+        var persistenceConstructor = instanceCreator instanceof PreferredConstructor
+                ? (PreferredConstructor<?, RelationalPersistentProperty>) instanceCreator
+                : null;
+        var constructorProperties = new HashSet<RelationalPersistentProperty>();
+        if (persistenceConstructor != null) {
+            for (Parameter<?, RelationalPersistentProperty> parameter : persistenceConstructor.getParameters()) {
+                RelationalPersistentProperty property = parameter.getName() == null
+                        ? null
+                        : persistentEntity.getPersistentProperty(parameter.getName());
+                if (property == null) {
+                    break;
+                }
+                constructorProperties.add(property);
+                names.add(property.getColumnName().getReference());
+                types.add(property.getTypeInformation());
+            }
+        }
+        var allProperties = new HashSet<RelationalPersistentProperty>();
+        persistentEntity.doWithProperties((PropertyHandler<RelationalPersistentProperty>) allProperties::add);
+        if (persistenceConstructor != null && constructorProperties.equals(allProperties)
+                && types.size() == persistenceConstructor.getConstructor().getParameterCount()) {
+            this.columns = names.toString();
+            this.constructor = compile(persistenceConstructor);
+        } else {
+            var allNames = new StringJoiner(", ");
+            allProperties.forEach(property -> allNames.add(property.getColumnName().getReference()));
+            this.columns = allNames.toString();
+            this.constructor = null;
+            types.clear();
+        }
+    }
+
+    /**
+     * Returns the comma separated columns to select.
+     */
+    String getColumns() {
+        return columns;
+    }
+
+    @Override
+    public T apply(Row row, RowMetadata metadata) {
+        if (constructor == null) {
+            return converter.read(entityClass, row, metadata);
+        }
+        var values = new Object[types.size()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = read(row.get(index), types.get(index));
+        }
+        try {
+            return entityClass.cast(constructor.invokeExact(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not create " + entityClass.getName(), e);
+        }
+    }
+
+    /**
+     * Converts the value if the driver decoded it to another type, e.g. strings to enums.
+     */
+    private Object read(Object value, TypeInformation<?> type) {
+        return value == null || type.getType().isInstance(value) ? value : converter.readValue(value, type);
+    }
+
+    private static MethodHandle compile(PreferredConstructor<?, ?> persistenceConstructor) {
+        var constructor = persistenceConstructor.getConstructor();
+        try {
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("could not compile constructor " + constructor, e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.acme.taskmanager.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for named leases, which let a single node of a cluster own a job at a time.
+ *
+ * A lease is held until its expiration time and can be taken over by any other node after it.
+ * The times are given by the nodes, so the lease duration should be well above the clock skew between them.
+ */
+@Repository
+public class LeaseRepository {
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final RepositoryMetrics metrics;
+
+    @Autowired
+    public LeaseRepository(R2dbcEntityTemplate r2dbcEntityTemplate, MeterRegistry meterRegistry) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.metrics = new RepositoryMetrics(meterRegistry, "lease");
+    }
+
+    /**
+     * Acquires or renews the lease for the owner until the given time with a single statement,
+     * which only succeeds if the owner already holds the lease or the lease has expired.
+     *
+     * An update leaving the row unchanged, e.g. a renewal until the same time, may count no row depending on the
+     * driver, so a lease no row was counted for is looked up before it is created.
+     */
+    public Mono<Boolean> tryAcquire(String name, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        return metrics.timed("tryAcquire", r2dbcEntityTemplate.getDatabaseClient()
+                .sql("UPDATE lease SET owner = :owner, expires_at = :expiresAt "
+                        + "WHERE name = :name AND (owner = :owner OR expires_at < :now)")
+                .bind("owner", owner)
+                .bind("expiresAt", expiresAt)
+                .bind("name", name)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(count -> count > 0 ? Mono.just(true) : findOwner(name)
+                        .map(owner::equals)
+                        .switchIfEmpty(Mono.defer(() -> insert(name, owner, expiresAt)))));
+    }
+
+    /**
+     * Releases the lease if it is held by the owner, so another node can take it over without waiting for expiration.
+     */
+    public Mono<Boolean> release(String name, String owner, LocalDateTime now) {
+        return metrics.timed("release", r2dbcEntityTemplate.getDatabaseClient()
+                .sql("UPDATE lease SET expires_at = :now WHERE name = :name AND owner = :owner")
+                .bind("now", now)
+                .bind("name", name)
+                .bind("owner", owner)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0));
+    }
+
+    private Mono<String> findOwner(String name) {
+        return r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT owner FROM lease WHERE name = :name")
+                .bind("name", name)
+                .map((row, metadata) -> row.get("owner", String.class))
+                .one();
+    }
+
+    /**
+     * Creates a lease seen for the first time, fails if another node has just created it.
+     */
+    private Mono<Boolean> insert(String name, String owner, LocalDateTime expiresAt) {
+        return r2dbcEntityTemplate.getDatabaseClient()
+                .sql("INSERT INTO lease (name, owner, expires_at) VALUES (:name, :owner, :expiresAt)")
+                .bind("name", name)
+                .bind("owner", owner)
+                .bind("expiresAt", expiresAt)
+                .fetch()
+                .rowsUpdated()
+                .map(count -> count > 0)
+                .onErrorReturn(DataIntegrityViolationException.class, false);
+    }
+}
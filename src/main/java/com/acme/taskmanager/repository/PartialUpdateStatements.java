@@ -0,0 +1,191 @@
+package com.acme.taskmanager.repository;
+
+import io.r2dbc.spi.Statement;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Partial UPDATE statements of an entity class, setting its non-null columns.
+ *
+ * The columns are read with getters compiled to lambdas once per entity class, and the SQL is rendered with the bind
+ * markers of the database once per combination of assigned and matched columns (kept as bitmasks). The values are
+ * bound by position, so preparing a statement only allocates the bind values.
+ *
+ * @param <T> the type of entity
+ */
+final class PartialUpdateStatements<T> {
+    private static final int MAX_COLUMNS = Integer.SIZE;
+
+    private final BindMarkersFactory bindMarkersFactory;
+    private final String table;
+    private final List<Column<T>> columns = new ArrayList<>();
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final Map<Long, String> templates = new ConcurrentHashMap<>();
+    private final int versionIndex;
+
+    PartialUpdateStatements(R2dbcConverter converter, RelationalPersistentEntity<?> persistentEntity,
+                            BindMarkersFactory bindMarkersFactory) {
+        this.bindMarkersFactory = bindMarkersFactory;
+        this.table = persistentEntity.getTableName().getReference();
+        persistentEntity.doWithProperties((PropertyHandler<RelationalPersistentProperty>) property -> {
+            indexes.put(property.getColumnName().getReference(), columns.size());
+            columns.add(new Column<>(converter, persistentEntity, property));
+        });
+        if (columns.size() > MAX_COLUMNS) {
+            throw new IllegalArgumentException("at most " + MAX_COLUMNS + " columns are supported");
+        }
+        this.versionIndex = persistentEntity.hasVersionProperty()
+                ? indexes.get(persistentEntity.getRequiredVersionProperty().getColumnName().getReference())
+                : -1;
+    }
+
+    /**
+     * Prepares the UPDATE of the non-null columns of the entity in the rows matching all column conditions
+     * and the expected version if given, incrementing the version column of versioned entities.
+     *
+     * @return the statement or null if the entity has no non-null column
+     */
+    DatabaseClient.GenericExecuteSpec prepare(DatabaseClient databaseClient, Map<String, Object> conditions,
+                                              Long expectedVersion, T entity) {
+        var values = new Object[2 * columns.size()];
+        long assigned = 0;
+        for (int index = 0; index < columns.size(); index++) {
+            if (index != versionIndex) {
+                var value = columns.get(index).read(entity);
+                if (value != null) {
+                    values[index] = value;
+                    assigned |= 1L << index;
+                }
+            }
+        }
+        if (assigned == 0) {
+            return null;
+        }
+        long matched = 0;
+        for (var condition : conditions.entrySet()) {
+            var index = indexOf(condition.getKey());
+            values[columns.size() + index] = columns.get(index).write(condition.getValue());
+            matched |= 1L << index;
+        }
+        if (expectedVersion != null) {
+            if (versionIndex < 0) {
+                throw new IllegalArgumentException(table + " has no version column");
+            }
+            values[columns.size() + versionIndex] = expectedVersion;
+            matched |= 1L << versionIndex;
+        }
+        var key = matched << MAX_COLUMNS | assigned;
+        return databaseClient.sql(templates.computeIfAbsent(key, this::render))
+                .filter(statement -> bind(statement, key, values));
+    }
+
+    /**
+     * Binds the values of the assigned columns followed by the values of the matched columns,
+     * in the order of their bind markers.
+     */
+    private Statement bind(Statement statement, long key, Object[] values) {
+        int position = 0;
+        for (long bits = key; bits != 0; bits &= bits - 1) {
+            var bit = Long.numberOfTrailingZeros(bits);
+            statement.bind(position++, values[bit < MAX_COLUMNS ? bit : bit - MAX_COLUMNS + columns.size()]);
+        }
+        return statement;
+    }
+
+    /**
+     * Returns the number of rendered statements.
+     */
+    int size() {
+        return templates.size();
+    }
+
+    private int indexOf(String column) {
+        var index = indexes.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException("unknown column " + column + " of " + table);
+        }
+        return index;
+    }
+
+    private String render(long key) {
+        var bindMarkers = bindMarkersFactory.create();
+        var assignments = new StringJoiner(", ");
+        var predicate = new StringJoiner(" AND ");
+        for (int index = 0; index < columns.size(); index++) {
+            if ((key & 1L << index) != 0) {
+                assignments.add(columns.get(index).name + " = " + bindMarkers.next().getPlaceholder());
+            }
+        }
+        if (versionIndex >= 0) {
+            var version = columns.get(versionIndex).name;
+            assignments.add(version + " = " + version + " + 1");
+        }
+        for (int index = 0; index < columns.size(); index++) {
+            if ((key >>> MAX_COLUMNS & 1L << index) != 0) {
+                predicate.add(columns.get(index).name + " = " + bindMarkers.next().getPlaceholder());
+            }
+        }
+        return "UPDATE " + table + " SET " + assignments + " WHERE " + predicate;
+    }
+
+    /**
+     * Column of a persistent property, reading and converting its value like the outbound row of the entity.
+     */
+    private static final class Column<T> {
+        private final String name;
+        private final Function<T, Object> getter;
+        private final Function<Object, Object> writer;
+
+        private Column(R2dbcConverter converter, RelationalPersistentEntity<?> persistentEntity,
+                       RelationalPersistentProperty property) {
+            this.name = property.getColumnName().getReference();
+            this.getter = property.getGetter() != null
+                    ? compile(property.getGetter())
+                    : entity -> persistentEntity.getPropertyAccessor(entity).getProperty(property);
+            var targetType = ClassTypeInformation.from(converter.getTargetType(property.getType()));
+            this.writer = targetType.getType().equals(property.getType())
+                    ? null
+                    : value -> converter.writeValue(value, targetType);
+        }
+
+        private Object read(T entity) {
+            return write(getter.apply(entity));
+        }
+
+        private Object write(Object value) {
+            return value == null || writer == null ? value : writer.apply(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Function<T, Object> compile(Method getter) {
+            try {
+                var lookup = MethodHandles.lookup();
+                var handle = lookup.unreflect(getter);
+                return (Function<T, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                                MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                                handle, handle.type().wrap())
+                        .getTarget()
+                        .invoke();
+            } catch (Throwable e) {
+                throw new IllegalStateException("could not compile getter " + getter, e);
+            }
+        }
+    }
+}
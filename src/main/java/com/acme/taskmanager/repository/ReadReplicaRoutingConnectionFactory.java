@@ -0,0 +1,140 @@
+package com.acme.taskmanager.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes the connections of read-only repository operations to a read replica and all others to the primary.
+ *
+ * Repositories mark their read-only operations with the user they read for, see {@link ReadRouting}. After a write
+ * for a user, the reads for that user stick to the primary for the read-your-writes window, so users see their own
+ * writes despite the replication lag. The writes are tracked per instance, so the window should cover the lag.
+ *
+ * Every routing decision is counted as "r2dbc.routing" by target and reason. It unwraps to the primary, so the
+ * actuator pool gauges of the primary keep working.
+ */
+public class ReadReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory
+        implements Wrapped<ConnectionFactory>, Disposable {
+    static final String COUNTER = "r2dbc.routing";
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private final Cache<Long, Boolean> recentWrites;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica,
+                                               Duration readYourWritesWindow, long maximumSize,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this(primary, replica, readYourWritesWindow, maximumSize, meterRegistry, Ticker.systemTicker());
+    }
+
+    ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica,
+                                        Duration readYourWritesWindow, long maximumSize,
+                                        ObjectProvider<MeterRegistry> meterRegistry, Ticker ticker) {
+        this.primary = primary;
+        this.replica = replica;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(readYourWritesWindow)
+                .ticker(ticker)
+                .build();
+        this.meterRegistry = meterRegistry;
+        setTargetConnectionFactories(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Returns the routing connection factory wrapped by the given one, null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public static ReadReplicaRoutingConnectionFactory find(ConnectionFactory connectionFactory) {
+        var unwrapped = connectionFactory;
+        while (!(unwrapped instanceof ReadReplicaRoutingConnectionFactory) && unwrapped instanceof Wrapped) {
+            unwrapped = ((Wrapped<ConnectionFactory>) unwrapped).unwrap();
+        }
+        return unwrapped instanceof ReadReplicaRoutingConnectionFactory
+                ? (ReadReplicaRoutingConnectionFactory) unwrapped
+                : null;
+    }
+
+    public ConnectionFactory getReplica() {
+        return replica;
+    }
+
+    /**
+     * Sends the reads for the user to the primary until the read-your-writes window has passed.
+     */
+    void recordWrite(Long userId) {
+        recentWrites.put(userId, true);
+    }
+
+    boolean hasRecentWrite(Long userId) {
+        return recentWrites.getIfPresent(userId) != null;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            var readOnly = ReadRouting.getReadOnlyUserId(context);
+            if (readOnly.isEmpty()) {
+                return Mono.just(count(PRIMARY, "read-write"));
+            }
+            var userId = readOnly.get();
+            if (userId.isPresent() && hasRecentWrite(userId.get())) {
+                return Mono.just(count(PRIMARY, "read-your-writes"));
+            }
+            return Mono.just(count(REPLICA, "read-only"));
+        });
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        for (var connectionFactory : new ConnectionFactory[]{primary, replica}) {
+            if (connectionFactory instanceof Disposable) {
+                ((Disposable) connectionFactory).dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return primary instanceof Disposable && ((Disposable) primary).isDisposed()
+                && replica instanceof Disposable && ((Disposable) replica).isDisposed();
+    }
+
+    private String count(String target, String reason) {
+        var registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            counters.computeIfAbsent(target + ":" + reason, key -> Counter.builder(COUNTER)
+                            .description("Number of connections routed to the primary or the read replica")
+                            .tag("target", target)
+                            .tag("reason", reason)
+                            .register(registry))
+                    .increment();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,92 @@
+package com.acme.taskmanager.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Marks repository operations for the {@link ReadReplicaRoutingConnectionFactory}, does nothing if the connection
+ * factory of the repository does not route.
+ *
+ * Read-only operations carry the user they read for in the subscriber context and writes record their user once
+ * they succeed. Unmarked operations, e.g. reads deciding a write, use the primary.
+ */
+final class ReadRouting {
+    private static final String READ_ONLY_USER_ID = ReadRouting.class.getName() + ".READ_ONLY_USER_ID";
+
+    private final ReadReplicaRoutingConnectionFactory routing;
+
+    private ReadRouting(ReadReplicaRoutingConnectionFactory routing) {
+        this.routing = routing;
+    }
+
+    static ReadRouting of(ConnectionFactory connectionFactory) {
+        return new ReadRouting(ReadReplicaRoutingConnectionFactory.find(connectionFactory));
+    }
+
+    /**
+     * Returns the user of the read-only operation running in the context, an empty user if it reads for no user
+     * in particular, and empty if the operation is not read-only.
+     */
+    static Optional<Optional<Long>> getReadOnlyUserId(ContextView context) {
+        return context.getOrEmpty(READ_ONLY_USER_ID);
+    }
+
+    <R> Mono<R> readOnly(Long userId, Mono<R> mono) {
+        return routing == null ? mono : mono.contextWrite(readOnlyContext(userId));
+    }
+
+    <R> Flux<R> readOnly(Long userId, Flux<R> flux) {
+        return routing == null ? flux : flux.contextWrite(readOnlyContext(userId));
+    }
+
+    /**
+     * Marks a read-only operation for several users, which uses the primary if any of them has written recently.
+     */
+    <R> Flux<R> readOnlyForUsers(Collection<Long> userIds, Flux<R> flux) {
+        return routing == null ? flux : Flux.defer(() -> readOnly(userIds.stream()
+                .filter(Objects::nonNull)
+                .filter(routing::hasRecentWrite)
+                .findFirst()
+                .orElse(null), flux));
+    }
+
+    <R> Mono<R> write(Long userId, Mono<R> mono) {
+        return routing == null || userId == null ? mono : mono.doOnSuccess(result -> routing.recordWrite(userId));
+    }
+
+    <R> Flux<R> write(Long userId, Flux<R> flux) {
+        return routing == null || userId == null ? flux : flux.doOnComplete(() -> routing.recordWrite(userId));
+    }
+
+    /**
+     * Records a write for the user given by its result, e.g. the id of an inserted user.
+     */
+    <R> Mono<R> write(Function<R, Long> userId, Mono<R> mono) {
+        return routing == null ? mono : mono.doOnNext(result -> recordWrite(userId.apply(result)));
+    }
+
+    /**
+     * Records a write for the user given by each result, e.g. the owners of inserted tasks.
+     */
+    <R> Flux<R> write(Function<R, Long> userId, Flux<R> flux) {
+        return routing == null ? flux : flux.doOnNext(result -> recordWrite(userId.apply(result)));
+    }
+
+    private void recordWrite(Long userId) {
+        if (userId != null) {
+            routing.recordWrite(userId);
+        }
+    }
+
+    private static Function<Context, Context> readOnlyContext(Long userId) {
+        return context -> context.put(READ_ONLY_USER_ID, Optional.ofNullable(userId));
+    }
+}
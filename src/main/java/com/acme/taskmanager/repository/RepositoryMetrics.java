@@ -0,0 +1,59 @@
+package com.acme.taskmanager.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency timers and error counters of repository operations, tagged by entity and operation.
+ *
+ * The time is measured from subscription until completion, error or cancellation, so it includes
+ * waiting for a connection and reading all rows. Histograms and percentiles are configured
+ * with the {@code management.metrics.distribution} properties.
+ */
+public class RepositoryMetrics {
+    static final String TIMER = "repository.operation";
+    static final String ERRORS = "repository.operation.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final String entity;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(MeterRegistry meterRegistry, String entity) {
+        this.meterRegistry = meterRegistry;
+        this.entity = entity;
+    }
+
+    public <R> Mono<R> timed(String operation, Mono<R> mono) {
+        return Mono.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            return mono.doOnError(error -> countError(operation, error))
+                    .doFinally(signal -> sample.stop(timer(operation)));
+        });
+    }
+
+    public <R> Flux<R> timed(String operation, Flux<R> flux) {
+        return Flux.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            return flux.doOnError(error -> countError(operation, error))
+                    .doFinally(signal -> sample.stop(timer(operation)));
+        });
+    }
+
+    private Timer timer(String operation) {
+        return timers.computeIfAbsent(operation, key -> Timer.builder(TIMER)
+                .description("Latency of repository operations")
+                .tag("entity", entity)
+                .tag("operation", operation)
+                .register(meterRegistry));
+    }
+
+    private void countError(String operation, Throwable error) {
+        meterRegistry.counter(ERRORS, "entity", entity, "operation", operation,
+                "exception", error.getClass().getSimpleName()).increment();
+    }
+}
@@ -0,0 +1,181 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent single task inserts into multi-row INSERTs, if {@code task-insert-batching.enabled}.
+ *
+ * The inserts arriving within the window are collected, up to the maximum batch size, and written by
+ * {@link TaskRepository#insertAll} in one statement and transaction, with at most {@code concurrency} batches
+ * in flight. Every caller gets its own task with its generated id. If a batch fails, e.g. because one of its rows
+ * violates a constraint, its rows are retried one by one so every caller gets its own error. If fewer rows are returned
+ * than inserted, the returned rows are matched to their callers by user and name, and only the callers left without a
+ * row fail. A batch which cannot be settled otherwise fails all its callers still waiting, and batching goes on with
+ * the next batch.
+ *
+ * An insert is written even if its caller cancels once it has been queued. Inserts saved once batching has been
+ * stopped fail right away. The sizes of the batches are published
+ * as "task.insert.batch.size".
+ */
+@Component
+public class TaskInsertBatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskInsertBatcher.class);
+
+    private final TaskRepository taskRepository;
+    private final boolean enabled;
+    private final DistributionSummary batchSizes;
+    private final Sinks.Many<PendingInsert> inserts = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable batches;
+
+    @Autowired
+    public TaskInsertBatcher(TaskRepository taskRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${task-insert-batching.enabled}") boolean enabled,
+                             @Value("${task-insert-batching.window}") Duration window,
+                             @Value("${task-insert-batching.max-batch-size}") Integer maxBatchSize,
+                             @Value("${task-insert-batching.concurrency}") Integer concurrency) {
+        if (maxBatchSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("max-batch-size and concurrency must be positive");
+        }
+        this.taskRepository = taskRepository;
+        this.enabled = enabled;
+        this.batchSizes = DistributionSummary.builder("task.insert.batch.size")
+                .description("Number of tasks inserted per batch")
+                .register(meterRegistry);
+        this.batches = enabled
+                ? inserts.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                // the batches are emitted on time whether or not the inserts keep up
+                .onBackpressureBuffer()
+                .flatMap(this::insert, concurrency)
+                .subscribe(null, error -> LOGGER.error("Task insert batching stopped", error))
+                : null;
+    }
+
+    /**
+     * Inserts a task, in a batch with the concurrent inserts if enabled, and returns it with its generated id.
+     */
+    public Mono<TaskEntity> save(TaskEntity task) {
+        if (!enabled) {
+            return taskRepository.save(task);
+        }
+        return Mono.create(sink -> {
+            var pending = new PendingInsert(task, sink);
+            if (retryNonSerialized(() -> inserts.tryEmitNext(pending)).isFailure()) {
+                sink.error(new IllegalStateException("task insert batching has been stopped"));
+            }
+        });
+    }
+
+    /**
+     * Writes the queued inserts and stops batching.
+     */
+    @PreDestroy
+    public void stop() {
+        if (batches != null) {
+            retryNonSerialized(inserts::tryEmitComplete);
+        }
+    }
+
+    /**
+     * Retries an emission which raced with a concurrent one, the sink being only safe for serialized emissions.
+     */
+    private static Sinks.EmitResult retryNonSerialized(Supplier<Sinks.EmitResult> emission) {
+        var result = emission.get();
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            result = emission.get();
+        }
+        return result;
+    }
+
+    private Mono<Void> insert(List<PendingInsert> batch) {
+        batchSizes.record(batch.size());
+        if (batch.size() == 1) {
+            return insertOne(batch.get(0));
+        }
+        return Mono.defer(() -> taskRepository.insertAll(batch.stream()
+                        .map(pending -> pending.task)
+                        .collect(Collectors.toList())))
+                .onErrorResume(error -> {
+                    LOGGER.debug("Could not insert a batch of {} tasks, inserting them one by one", batch.size(), error);
+                    return Flux.fromIterable(batch).concatMap(this::insertOne).then(Mono.empty());
+                })
+                .doOnNext(saved -> {
+                    if (saved.size() == batch.size()) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).sink.success(saved.get(i));
+                        }
+                    } else {
+                        settlePartially(batch, saved);
+                    }
+                })
+                .then()
+                .onErrorResume(error -> {
+                    // completed sinks ignore the error
+                    LOGGER.error("Could not insert a batch of {} tasks", batch.size(), error);
+                    batch.forEach(pending -> pending.sink.error(error));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Completes the callers whose rows were returned and fails the others, the returned rows being committed.
+     */
+    private static void settlePartially(List<PendingInsert> batch, List<TaskEntity> saved) {
+        LOGGER.error("Inserted {} of a batch of {} tasks", saved.size(), batch.size());
+        var savedByKey = new HashMap<Tuple2<Long, String>, Queue<TaskEntity>>();
+        saved.forEach(task -> savedByKey.computeIfAbsent(Tuples.of(task.getUserId(), task.getName()),
+                key -> new ArrayDeque<>()).add(task));
+        for (var pending : batch) {
+            var tasks = savedByKey.get(Tuples.of(pending.task.getUserId(), pending.task.getName()));
+            var task = tasks == null ? null : tasks.poll();
+            if (task == null) {
+                pending.sink.error(new IllegalStateException("task was not returned by the insert of its batch of "
+                        + batch.size() + " tasks"));
+            } else {
+                pending.sink.success(task);
+            }
+        }
+    }
+
+    private Mono<Void> insertOne(PendingInsert pending) {
+        return Mono.defer(() -> taskRepository.save(pending.task))
+                .doOnNext(pending.sink::success)
+                .doOnError(pending.sink::error)
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private static final class PendingInsert {
+        private final TaskEntity task;
+        private final MonoSink<TaskEntity> sink;
+
+        private PendingInsert(TaskEntity task, MonoSink<TaskEntity> sink) {
+            this.task = task;
+            this.sink = sink;
+        }
+    }
+}
@@ -1,35 +1,82 @@
 package com.acme.taskmanager.repository;
 
 import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.type.TaskSort;
 import com.acme.taskmanager.type.TaskStatus;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Row;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.BadSqlGrammarException;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.springframework.data.relational.core.query.Query.query;
 import static org.springframework.data.relational.core.query.Criteria.where;
-import static org.springframework.data.relational.core.query.Update.update;
 
 /**
  * CRUD repository for tasks.
+ *
+ * The number of tasks per user and status read by the {@link TaskStatisticsRepository} is maintained by triggers on
+ * the task table, see the vendor migrations, so every write stays a single statement.
  */
 @Repository
 public class TaskRepository extends CriteriaBasedRepository<TaskEntity, Long> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(TaskRepository.class);
-
     private static final String USER_ID = "user_id";
     private static final String STATUS = "status";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
     private static final String DATE_TIME = "date_time";
+    private static final int STATUS_FILTER = 1;
+    private static final int DATE_TIME_FROM_FILTER = 1 << 1;
+    private static final int DATE_TIME_TO_FILTER = 1 << 2;
+    private static final int AFTER_ID = 1 << 3;
+    private static final int LIMIT = 1 << 4;
+    private static final int DESCENDING = 1 << 5;
+    private static final int SORT_SHIFT = 6;
+    private static final String FULL_TEXT_MATCH = "MATCH (name, description) AGAINST (%s IN NATURAL LANGUAGE MODE)";
+
+    private final String findAllByUserIdSql;
+    private final String findAllByUserIdAfterIdSql;
+    private final String findByIdAndUserIdSql;
+    private final String existsByIdAndUserIdSql;
+    private final String searchByUserIdSql;
+    private final Map<Integer, String> filteredSelects = new ConcurrentHashMap<>();
+    private final TransactionalOperator transactionalOperator;
 
     @Autowired
-    public TaskRepository(R2dbcEntityTemplate r2dbcEntityTemplate) {
-        super(r2dbcEntityTemplate);
+    public TaskRepository(R2dbcEntityTemplate r2dbcEntityTemplate, TransactionalOperator transactionalOperator,
+                          MeterRegistry meterRegistry) {
+        super(r2dbcEntityTemplate, meterRegistry);
+        this.transactionalOperator = transactionalOperator;
+        this.findAllByUserIdSql = renderSelect(bindMarkers -> whereEqual(bindMarkers, USER_ID));
+        this.findAllByUserIdAfterIdSql = renderSelect(bindMarkers -> whereEqual(bindMarkers, USER_ID)
+                + " AND " + identifier + " > " + bindMarkers.next().getPlaceholder()
+                + " ORDER BY " + identifier + " LIMIT " + bindMarkers.next().getPlaceholder());
+        this.findByIdAndUserIdSql = renderSelect(bindMarkers -> whereEqual(bindMarkers, identifier, USER_ID));
+        this.existsByIdAndUserIdSql = renderExists(bindMarkers -> whereEqual(bindMarkers, identifier, USER_ID));
+        this.searchByUserIdSql = renderSelect(bindMarkers -> whereEqual(bindMarkers, USER_ID)
+                + " AND " + String.format(FULL_TEXT_MATCH, bindMarkers.next().getPlaceholder())
+                + " ORDER BY " + String.format(FULL_TEXT_MATCH, bindMarkers.next().getPlaceholder()) + " DESC, " + identifier
+                + " LIMIT " + bindMarkers.next().getPlaceholder() + " OFFSET " + bindMarkers.next().getPlaceholder());
     }
 
     @Override
@@ -37,30 +84,449 @@ public class TaskRepository extends CriteriaBasedRepository<TaskEntity, Long> {
         return TaskEntity.class;
     }
 
+    @Override
+    protected Long getOwnerIdOfEntity(TaskEntity entity) {
+        return entity.getUserId();
+    }
+
     public Flux<TaskEntity> findAllByUserId(Long userId) {
-        return r2dbcEntityTemplate.select(query(where(USER_ID).is(userId)), getEntityClass());
+        return metrics.timed("findAllByUserId", readRouting.readOnly(userId, select(findAllByUserIdSql, userId)));
+    }
+
+    /**
+     * Returns the next page of tasks of a user ordered by id, starting after the given id (keyset pagination).
+     * The (user_id, id) range is served by idx_user_id, so the cost does not depend on the page position.
+     */
+    public Flux<TaskEntity> findAllByUserIdAfterId(Long userId, Long afterId, int limit) {
+        return metrics.timed("findAllByUserIdAfterId", readRouting.readOnly(userId,
+                select(findAllByUserIdAfterIdSql, userId, afterId, limit)));
+    }
+
+    /**
+     * Returns the tasks of a user with the given status and date time range, each condition is optional,
+     * ordered by the given column and id.
+     */
+    public Flux<TaskEntity> findAllByUserIdAndFilter(Long userId, TaskStatus status, LocalDateTime dateTimeFrom,
+                                                     LocalDateTime dateTimeTo, TaskSort sort, boolean descending) {
+        return metrics.timed("findAllByUserIdAndFilter", readRouting.readOnly(userId,
+                selectFiltered(userId, status, dateTimeFrom, dateTimeTo, null, null, sort, descending)));
+    }
+
+    /**
+     * Returns the next page of tasks of a user with the given status and date time range ordered by id,
+     * starting after the given id (keyset pagination).
+     */
+    public Flux<TaskEntity> findAllByUserIdAndFilterAfterId(Long userId, TaskStatus status, LocalDateTime dateTimeFrom,
+                                                            LocalDateTime dateTimeTo, Long afterId, int limit) {
+        return metrics.timed("findAllByUserIdAndFilterAfterId", readRouting.readOnly(userId,
+                selectFiltered(userId, status, dateTimeFrom, dateTimeTo, afterId, limit, TaskSort.ID, false)));
     }
 
     public Mono<TaskEntity> findByIdAndUserId(Long taskId, Long userId) {
-        return r2dbcEntityTemplate.selectOne(query(where(identifier).is(taskId)
-                .and(USER_ID).is(userId)), getEntityClass());
+        return metrics.timed("findByIdAndUserId",
+                readRouting.readOnly(userId, selectOne(findByIdAndUserIdSql, taskId, userId)));
+    }
+
+    /**
+     * Fetches a task of a user together with its owner in a single round-trip.
+     */
+    public Mono<Tuple2<TaskEntity, UserEntity>> findWithUserByIdAndUserId(Long taskId, Long userId) {
+        return metrics.timed("findWithUserByIdAndUserId", readRouting.readOnly(userId, r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql("SELECT t.id, t.user_id, t.name, t.description, t.date_time, t.status, t.version, "
+                        + "u.username, u.first_name, u.last_name, u.version AS user_version "
+                        + "FROM task t JOIN user u ON u.id = t.user_id "
+                        + "WHERE t.id = :taskId AND t.user_id = :userId")
+                .bind("taskId", taskId)
+                .bind("userId", userId)
+                .map((row, metadata) -> Tuples.of(
+                        r2dbcEntityTemplate.getConverter().read(getEntityClass(), row, metadata),
+                        new UserEntity(getLong(row, USER_ID), row.get("username", String.class),
+                                row.get("first_name", String.class), row.get("last_name", String.class),
+                                getLong(row, "user_version"))))
+                .one()));
+    }
+
+    /**
+     * Returns the tasks of a user with a name or description matching the search terms, ordered by relevance.
+     * Requires the FULLTEXT index on (name, description), see {@link #hasFullTextIndex()}.
+     */
+    public Flux<TaskEntity> searchByUserId(Long userId, String terms, long offset, int limit) {
+        return metrics.timed("searchByUserId", readRouting.readOnly(userId,
+                select(searchByUserIdSql, userId, terms, terms, limit, offset)));
+    }
+
+    /**
+     * Checks whether the database has a FULLTEXT index on the task table,
+     * databases without the MariaDB information schema statistics have none.
+     */
+    public Mono<Boolean> hasFullTextIndex() {
+        return metrics.timed("hasFullTextIndex", readRouting.readOnly(null, r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT 1 FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = :table AND index_type = 'FULLTEXT' LIMIT 1")
+                .bind("table", table)
+                .map((row, metadata) -> true)
+                .first()
+                .defaultIfEmpty(false)
+                .onErrorReturn(BadSqlGrammarException.class, false)));
+    }
+
+    public Flux<TaskEntity> findAllByUserIdAndIdIn(Long userId, Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return metrics.timed("findAllByUserIdAndIdIn", readRouting.readOnly(userId,
+                r2dbcEntityTemplate.select(query(where(USER_ID).is(userId).and(identifier).in(taskIds)), getEntityClass())));
     }
 
     public Mono<Boolean> existsByIdAndUserId(Long taskId, Long userId) {
-        return r2dbcEntityTemplate.exists(query(where(identifier).is(taskId)
-                .and(USER_ID).is(userId)), getEntityClass());
+        return metrics.timed("existsByIdAndUserId",
+                readRouting.readOnly(userId, exists(existsByIdAndUserIdSql, taskId, userId)));
+    }
+
+    public Mono<Integer> updateNonNullByIdAndUserId(Long taskId, Long userId, TaskEntity entity, Long expectedVersion) {
+        return metrics.timed("updateNonNullByIdAndUserId", readRouting.write(userId,
+                updateNonNull(Map.of(identifier, taskId, USER_ID, userId), expectedVersion, entity)));
+    }
+
+    public Mono<Void> deleteByIdAndUserId(Long taskId, Long userId) {
+        return metrics.timed("deleteByIdAndUserId", readRouting.write(userId,
+                delete(where(identifier).is(taskId).and(USER_ID).is(userId))));
+    }
+
+    /**
+     * Inserts the tasks of a user with a single multi-row INSERT and returns them with their generated ids.
+     * Columns without a value fall back to their database defaults.
+     */
+    public Flux<TaskEntity> saveAll(Long userId, List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return Flux.empty();
+        }
+        var inserts = insertRows(tasks.stream()
+                .map(task -> new TaskEntity(null, userId, task.getName(), task.getDescription(), task.getDateTime(),
+                        task.getStatus(), null))
+                .collect(Collectors.toList()));
+        return metrics.timed("saveAll", readRouting.write(userId, inserts.flatMapMany(Flux::fromIterable)));
+    }
+
+    /**
+     * Inserts the tasks of any users with a single multi-row INSERT and returns them with their
+     * generated ids, in the given order. Columns without a value fall back to their database defaults.
+     */
+    public Mono<List<TaskEntity>> insertAll(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return metrics.timed("insertAll", readRouting.write(TaskEntity::getUserId,
+                insertRows(tasks).flatMapMany(Flux::fromIterable))
+                .collectList());
+    }
+
+    public Flux<String> findNamesByUserIdAndNameIn(Long userId, Collection<String> names) {
+        if (names.isEmpty()) {
+            return Flux.empty();
+        }
+        return metrics.timed("findNamesByUserIdAndNameIn", r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT name FROM task WHERE user_id = :userId AND name IN (:names)")
+                .bind("userId", userId)
+                .bind("names", names)
+                .map((row, metadata) -> row.get(NAME, String.class))
+                .all());
+    }
+
+    public Mono<Integer> updateStatusByUserIdAndIdIn(Long userId, Collection<Long> taskIds, TaskStatus status) {
+        if (taskIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        return metrics.timed("updateStatusByUserIdAndIdIn", readRouting.write(userId, r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql("UPDATE task SET status = :status, version = version + 1 WHERE user_id = :userId AND id IN (:taskIds)")
+                .bind(STATUS, status.name())
+                .bind("userId", userId)
+                .bind("taskIds", taskIds)
+                .fetch()
+                .rowsUpdated()));
     }
 
+    public Mono<Integer> deleteByUserIdAndIdIn(Long userId, Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        return metrics.timed("deleteByUserIdAndIdIn", readRouting.write(userId,
+                r2dbcEntityTemplate.delete(query(where(USER_ID).is(userId).and(identifier).in(taskIds)), getEntityClass())));
+    }
+
+    /**
+     * Updates the status of at most {@code limit} matching tasks of a user with a single statement.
+     * Tasks which already have the new status do not match, so repeated calls drain the selection.
+     */
+    public Mono<Integer> updateStatusByUserIdAndFilter(Long userId, TaskStatus status, LocalDateTime dateTimeFrom,
+                                                       LocalDateTime dateTimeTo, TaskStatus newStatus, int limit) {
+        var bindings = new LinkedHashMap<String, Object>();
+        var predicate = filterPredicate(bindings, userId, status, dateTimeFrom, dateTimeTo);
+        bindings.put("newStatus", newStatus.name());
+        bindings.put("limit", limit);
+        return metrics.timed("updateStatusByUserIdAndFilter", readRouting.write(userId,
+                sql("UPDATE task SET status = :newStatus, version = version + 1 "
+                        + "WHERE " + predicate + " AND status <> :newStatus LIMIT :limit", bindings)
+                        .fetch()
+                        .rowsUpdated()));
+    }
+
+    /**
+     * Deletes at most {@code limit} matching tasks of a user with a single statement.
+     */
+    public Mono<Integer> deleteByUserIdAndFilter(Long userId, TaskStatus status, LocalDateTime dateTimeFrom,
+                                                 LocalDateTime dateTimeTo, int limit) {
+        var bindings = new LinkedHashMap<String, Object>();
+        var predicate = filterPredicate(bindings, userId, status, dateTimeFrom, dateTimeTo);
+        bindings.put("limit", limit);
+        return metrics.timed("deleteByUserIdAndFilter", readRouting.write(userId,
+                sql("DELETE FROM task WHERE " + predicate + " LIMIT :limit", bindings)
+                        .fetch()
+                        .rowsUpdated()));
+    }
+
+    /**
+     * Sets the status of at most {@code limit} pending tasks expired at the given date time with a single statement.
+     */
     public Mono<Integer> updatePendingTasksBeforeDateTime(LocalDateTime expirationDateTime, TaskStatus status, Integer limit) {
-        return r2dbcEntityTemplate.select(query(where(STATUS).is(TaskStatus.PENDING)
-                        .and(DATE_TIME).lessThanOrEquals(expirationDateTime))
-                        .limit(limit), getEntityClass())
-                .doOnNext(task -> LOGGER.info("Expired pending task id={} and name={}", task.getId(), task.getName()))
-                .map(TaskEntity::getId)
-                .collectList()
-                .flatMap(ids -> r2dbcEntityTemplate.update(getEntityClass())
-                        .matching(query(where(identifier).in(ids)))
-                        .apply(update(STATUS, status))
-                );
+        return metrics.timed("updatePendingTasksBeforeDateTime", r2dbcEntityTemplate.getDatabaseClient()
+                .sql("UPDATE task SET status = :status, version = version + 1 "
+                        + "WHERE status = :pending AND date_time <= :expirationDateTime LIMIT :limit")
+                .bind(STATUS, status.name())
+                .bind("pending", TaskStatus.PENDING.name())
+                .bind("expirationDateTime", expirationDateTime)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated());
+    }
+
+    /**
+     * Counts the pending tasks of a user with a date time before the given one, as a range of the
+     * (user_id, status, date_time) index.
+     */
+    public Mono<Long> countPendingByUserIdBeforeDateTime(Long userId, LocalDateTime dateTime) {
+        return metrics.timed("countPendingByUserIdBeforeDateTime", readRouting.readOnly(userId,
+                r2dbcEntityTemplate.count(query(where(USER_ID).is(userId)
+                        .and(STATUS).is(TaskStatus.PENDING)
+                        .and(DATE_TIME).lessThan(dateTime)), getEntityClass())));
+    }
+
+    /**
+     * Counts the pending tasks expired at the given date time.
+     */
+    public Mono<Long> countPendingTasksBeforeDateTime(LocalDateTime expirationDateTime) {
+        return metrics.timed("countPendingTasksBeforeDateTime", readRouting.readOnly(null,
+                r2dbcEntityTemplate.count(query(where(STATUS).is(TaskStatus.PENDING)
+                        .and(DATE_TIME).lessThanOrEquals(expirationDateTime)), getEntityClass())));
+    }
+
+    /**
+     * Sets the status of the given tasks in a single transaction, if they are still pending and expired at the given date time,
+     * and returns the id, owner and new status of the updated tasks. The owners of the tasks are only known by their
+     * ids, so the tasks are selected and locked before they are updated by id.
+     */
+    public Mono<List<TaskEntity>> updatePendingTasksByIdInBeforeDateTime(Collection<Long> taskIds,
+                                                                         LocalDateTime expirationDateTime,
+                                                                         TaskStatus status) {
+        return metrics.timed("updatePendingTasksByIdInBeforeDateTime", transactionalOperator.transactional(
+                r2dbcEntityTemplate.getDatabaseClient()
+                        .sql("SELECT id, user_id FROM task "
+                                + "WHERE id IN (:taskIds) AND status = :pending AND date_time <= :expirationDateTime "
+                                + "FOR UPDATE")
+                        .bind("taskIds", taskIds)
+                        .bind("pending", TaskStatus.PENDING.name())
+                        .bind("expirationDateTime", expirationDateTime)
+                        .map((row, metadata) -> new TaskEntity.Builder()
+                                .setId(getLong(row, identifier))
+                                .setUserId(getLong(row, USER_ID))
+                                .setStatus(status)
+                                .build())
+                        .all()
+                        .collectList()
+                        .flatMap(tasks -> tasks.isEmpty() ? Mono.just(tasks) : updateStatusByIdIn(tasks.stream()
+                                .map(TaskEntity::getId)
+                                .collect(Collectors.toList()), status)
+                                .thenReturn(tasks))));
+    }
+
+    /**
+     * Returns the id, owner and date time of the pending tasks with a date time in the given range.
+     */
+    public Flux<TaskEntity> findPendingTasksBetweenDateTimes(LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+        return metrics.timed("findPendingTasksBetweenDateTimes", readRouting.readOnly(null, r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql("SELECT id, user_id, date_time FROM task "
+                        + "WHERE status = :pending AND date_time > :dateTimeFrom AND date_time <= :dateTimeTo")
+                .bind("pending", TaskStatus.PENDING.name())
+                .bind("dateTimeFrom", dateTimeFrom)
+                .bind("dateTimeTo", dateTimeTo)
+                .map((row, metadata) -> new TaskEntity.Builder()
+                        .setId(getLong(row, identifier))
+                        .setUserId(getLong(row, USER_ID))
+                        .setDateTime(row.get(DATE_TIME, LocalDateTime.class))
+                        .setStatus(TaskStatus.PENDING)
+                        .build())
+                .all()));
+    }
+
+    /**
+     * Selects the filtered tasks of a user with a statement rendered once per combination of conditions and order.
+     *
+     * The conditions are served by the (user_id, status, date_time) index. A date time range without status is
+     * matched within each status, so it uses the index as ranges instead of scanning all tasks of the user.
+     */
+    private Flux<TaskEntity> selectFiltered(Long userId, TaskStatus status, LocalDateTime dateTimeFrom,
+                                            LocalDateTime dateTimeTo, Long afterId, Integer limit, TaskSort sort,
+                                            boolean descending) {
+        var values = new ArrayList<Object>();
+        values.add(userId);
+        int key = sort.ordinal() << SORT_SHIFT | (descending ? DESCENDING : 0);
+        if (status != null) {
+            values.add(status.name());
+            key |= STATUS_FILTER;
+        } else if (dateTimeFrom != null || dateTimeTo != null) {
+            for (var value : TaskStatus.values()) {
+                values.add(value.name());
+            }
+        }
+        if (dateTimeFrom != null) {
+            values.add(dateTimeFrom);
+            key |= DATE_TIME_FROM_FILTER;
+        }
+        if (dateTimeTo != null) {
+            values.add(dateTimeTo);
+            key |= DATE_TIME_TO_FILTER;
+        }
+        if (afterId != null) {
+            values.add(afterId);
+            key |= AFTER_ID;
+        }
+        if (limit != null) {
+            values.add(limit);
+            key |= LIMIT;
+        }
+        return select(filteredSelects.computeIfAbsent(key, this::renderFilteredSelect), values.toArray());
+    }
+
+    private String renderFilteredSelect(int key) {
+        var sort = TaskSort.values()[key >>> SORT_SHIFT];
+        var direction = (key & DESCENDING) != 0 ? " DESC" : "";
+        return renderSelect(bindMarkers -> {
+            var clause = new StringBuilder(whereEqual(bindMarkers, USER_ID));
+            if ((key & STATUS_FILTER) != 0) {
+                clause.append(" AND ").append(STATUS).append(" = ").append(bindMarkers.next().getPlaceholder());
+            } else if ((key & (DATE_TIME_FROM_FILTER | DATE_TIME_TO_FILTER)) != 0) {
+                var statuses = new StringJoiner(", ", " AND " + STATUS + " IN (", ")");
+                for (int i = 0; i < TaskStatus.values().length; i++) {
+                    statuses.add(bindMarkers.next().getPlaceholder());
+                }
+                clause.append(statuses);
+            }
+            if ((key & DATE_TIME_FROM_FILTER) != 0) {
+                clause.append(" AND ").append(DATE_TIME).append(" >= ").append(bindMarkers.next().getPlaceholder());
+            }
+            if ((key & DATE_TIME_TO_FILTER) != 0) {
+                clause.append(" AND ").append(DATE_TIME).append(" <= ").append(bindMarkers.next().getPlaceholder());
+            }
+            if ((key & AFTER_ID) != 0) {
+                clause.append(" AND ").append(identifier).append(" > ").append(bindMarkers.next().getPlaceholder());
+            }
+            clause.append(" ORDER BY ").append(sort.getColumn()).append(direction);
+            if (sort != TaskSort.ID) {
+                clause.append(", ").append(identifier).append(direction);
+            }
+            if ((key & LIMIT) != 0) {
+                clause.append(" LIMIT ").append(bindMarkers.next().getPlaceholder());
+            }
+            return clause.toString();
+        });
+    }
+
+    private Mono<Integer> updateStatusByIdIn(List<Long> taskIds, TaskStatus status) {
+        return r2dbcEntityTemplate.getDatabaseClient()
+                .sql("UPDATE task SET status = :status, version = version + 1 WHERE id IN (:taskIds)")
+                .bind(STATUS, status.name())
+                .bind("taskIds", taskIds)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Inserts the tasks with a single multi-row INSERT. The returned rows are matched to the tasks by their unique
+     * (user_id, name), so the tasks are returned in the given order.
+     */
+    private Mono<List<TaskEntity>> insertRows(List<TaskEntity> tasks) {
+        var values = new ArrayList<String>(tasks.size());
+        var bindings = new LinkedHashMap<String, Object>();
+        var indexByKey = new HashMap<Tuple2<Long, String>, Integer>();
+        for (int i = 0; i < tasks.size(); i++) {
+            var task = tasks.get(i);
+            values.add(String.format("(%s, %s, %s, %s, %s)",
+                    valueOrDefault(bindings, "userId" + i, task.getUserId()),
+                    valueOrDefault(bindings, NAME + i, task.getName()),
+                    valueOrDefault(bindings, DESCRIPTION + i, task.getDescription()),
+                    valueOrDefault(bindings, "dateTime" + i, task.getDateTime()),
+                    valueOrDefault(bindings, STATUS + i, task.getStatus() == null ? null : task.getStatus().name())));
+            indexByKey.putIfAbsent(Tuples.of(task.getUserId(), task.getName()), i);
+        }
+        var sql = "INSERT INTO task (user_id, name, description, date_time, status) VALUES " + String.join(", ", values);
+        return sql(sql, bindings)
+                // rendered as RETURNING by MariaDB and read from the generated keys by other databases
+                .filter(statement -> statement.returnGeneratedValues(identifier, USER_ID, NAME))
+                .map((row, metadata) -> {
+                    var index = indexByKey.get(Tuples.of(getLong(row, USER_ID), row.get(NAME, String.class)));
+                    var task = tasks.get(index);
+                    return Tuples.of(index, new TaskEntity(getLong(row, identifier), task.getUserId(), task.getName(),
+                            task.getDescription(), task.getDateTime(), task.getStatus(), 0L));
+                })
+                .all()
+                .collectSortedList(Comparator.comparing(Tuple2::getT1))
+                .map(inserted -> inserted.stream().map(Tuple2::getT2).collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads an integer column as long whatever type the driver decodes it to, e.g. unsigned INT columns are
+     * decoded to {@link Long} by MariaDB but to {@link Integer} by other databases.
+     */
+    private static Long getLong(Row row, String column) {
+        var value = row.get(column);
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static String valueOrDefault(Map<String, Object> bindings, String parameter, Object value) {
+        if (value == null) {
+            return "DEFAULT";
+        }
+        bindings.put(parameter, value);
+        return ":" + parameter;
+    }
+
+    private DatabaseClient.GenericExecuteSpec sql(String sql, Map<String, Object> bindings) {
+        var spec = r2dbcEntityTemplate.getDatabaseClient().sql(sql);
+        for (var binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+
+    private static String filterPredicate(Map<String, Object> bindings, Long userId, TaskStatus status,
+                                          LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+        var predicate = new StringBuilder("user_id = :userId");
+        bindings.put("userId", userId);
+        if (status != null) {
+            predicate.append(" AND status = :status");
+            bindings.put(STATUS, status.name());
+        }
+        if (dateTimeFrom != null) {
+            predicate.append(" AND date_time >= :dateTimeFrom");
+            bindings.put("dateTimeFrom", dateTimeFrom);
+        }
+        if (dateTimeTo != null) {
+            predicate.append(" AND date_time <= :dateTimeTo");
+            bindings.put("dateTimeTo", dateTimeTo);
+        }
+        return predicate.toString();
     }
 }
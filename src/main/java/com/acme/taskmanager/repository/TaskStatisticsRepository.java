@@ -0,0 +1,89 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Repository for the number of tasks per user and status.
+ *
+ * The counts are changed by triggers on the task table within the statements writing the tasks, so reading them
+ * costs a primary key lookup instead of counting the tasks of the user. Counts which drifted anyway, e.g. on a
+ * database without the triggers, are fixed by {@link #reconcile(Long, Long)}.
+ */
+@Repository
+public class TaskStatisticsRepository {
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final RepositoryMetrics metrics;
+    private final ReadRouting readRouting;
+
+    @Autowired
+    public TaskStatisticsRepository(R2dbcEntityTemplate r2dbcEntityTemplate, TransactionalOperator transactionalOperator,
+                                    MeterRegistry meterRegistry) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.transactionalOperator = transactionalOperator;
+        this.metrics = new RepositoryMetrics(meterRegistry, "task_statistics");
+        this.readRouting = ReadRouting.of(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory());
+    }
+
+    /**
+     * Returns the number of tasks of a user by status, statuses without a row are missing.
+     */
+    public Mono<Map<TaskStatus, Long>> findCountsByUserId(Long userId) {
+        return metrics.timed("findCountsByUserId", readRouting.readOnly(userId, r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT status, task_count FROM task_statistics WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> Map.entry(TaskStatus.valueOf(row.get("status", String.class)),
+                        ((Number) row.get("task_count")).longValue()))
+                .all()
+                .collect(() -> new EnumMap<>(TaskStatus.class),
+                        (counts, count) -> counts.put(count.getKey(), count.getValue()))));
+    }
+
+    /**
+     * Recounts the tasks of the users in the given id range, both inclusive, and overwrites their counts.
+     * The counts found and the counts of statuses without tasks are written one after the other in one transaction,
+     * so both see the same tasks. Returns the number of rows written, which includes unchanged rows on some databases.
+     */
+    public Mono<Integer> reconcile(Long fromUserId, Long toUserId) {
+        var databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        return metrics.timed("reconcile", transactionalOperator.transactional(databaseClient
+                .sql("INSERT INTO task_statistics (user_id, status, task_count) "
+                        + "SELECT user_id, status, COUNT(*) FROM task WHERE user_id BETWEEN :fromUserId AND :toUserId "
+                        + "GROUP BY user_id, status "
+                        + "ON DUPLICATE KEY UPDATE task_count = VALUES(task_count)")
+                .bind("fromUserId", fromUserId)
+                .bind("toUserId", toUserId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(counted -> databaseClient
+                        .sql("UPDATE task_statistics SET task_count = 0 "
+                                + "WHERE user_id BETWEEN :fromUserId AND :toUserId AND task_count <> 0 "
+                                + "AND NOT EXISTS (SELECT 1 FROM task "
+                                + "WHERE task.user_id = task_statistics.user_id AND task.status = task_statistics.status)")
+                        .bind("fromUserId", fromUserId)
+                        .bind("toUserId", toUserId)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(zeroed -> counted + zeroed))));
+    }
+
+    /**
+     * Returns the highest user id with tasks or counts, 0 if there are none.
+     */
+    public Mono<Long> findMaxUserId() {
+        return metrics.timed("findMaxUserId", r2dbcEntityTemplate.getDatabaseClient()
+                .sql("SELECT GREATEST(COALESCE((SELECT MAX(user_id) FROM task), 0), "
+                        + "COALESCE((SELECT MAX(user_id) FROM task_statistics), 0)) AS max_user_id")
+                .map((row, metadata) -> ((Number) row.get("max_user_id")).longValue())
+                .one());
+    }
+}
@@ -0,0 +1,123 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.UserEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batches concurrent user lookups by id into {@code WHERE id IN (...)} queries, if {@code user-loader.enabled}.
+ *
+ * The first lookup queued schedules a load on the next tick of the scheduler, which takes every lookup queued until
+ * then and queries their distinct ids, at most {@code max-batch-size} per query. Lookups of the same id share its row,
+ * and a failed query fails all of its lookups. A lookup cancelled before its load is dropped from the queue. The
+ * queries run detached from the subscriber contexts of their lookups: they mark their own read routing, from the ids
+ * they load, but carry no other context of the callers, e.g. tracing. The numbers of ids per query are published as
+ * "user.load.batch.size".
+ */
+@Component
+public class UserLoader {
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Integer maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final Scheduler scheduler;
+    private final Queue<PendingLoad> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    @Autowired
+    public UserLoader(UserRepository userRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${user-loader.enabled}") boolean enabled,
+                      @Value("${user-loader.max-batch-size}") Integer maxBatchSize) {
+        this(userRepository, meterRegistry, enabled, maxBatchSize, Schedulers.parallel());
+    }
+
+    UserLoader(UserRepository userRepository, MeterRegistry meterRegistry, boolean enabled, Integer maxBatchSize,
+               Scheduler scheduler) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("max-batch-size must be positive");
+        }
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchSizes = DistributionSummary.builder("user.load.batch.size")
+                .description("Number of users loaded per query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds a user by id, in a batch with the concurrent lookups if enabled.
+     */
+    public Mono<UserEntity> findById(Long userId) {
+        if (!enabled) {
+            return userRepository.findById(userId);
+        }
+        return Mono.create(sink -> {
+            var load = new PendingLoad(userId, sink);
+            sink.onCancel(() -> pending.remove(load));
+            pending.add(load);
+            if (scheduled.compareAndSet(false, true)) {
+                scheduler.schedule(this::loadPending);
+            }
+        });
+    }
+
+    private void loadPending() {
+        // lookups queued from now on schedule the next load
+        scheduled.set(false);
+        var batch = new HashMap<Long, List<MonoSink<UserEntity>>>();
+        PendingLoad load;
+        while ((load = pending.poll()) != null) {
+            batch.computeIfAbsent(load.userId, userId -> new ArrayList<>()).add(load.sink);
+            if (batch.size() == maxBatchSize) {
+                load(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            load(batch);
+        }
+    }
+
+    private void load(Map<Long, List<MonoSink<UserEntity>>> batch) {
+        batchSizes.record(batch.size());
+        userRepository.findAllById(batch.keySet())
+                .collectMap(UserEntity::getId)
+                .subscribe(users -> batch.forEach((userId, sinks) -> {
+                    var user = users.get(userId);
+                    sinks.forEach(sink -> {
+                        if (user == null) {
+                            sink.success();
+                        } else {
+                            sink.success(user);
+                        }
+                    });
+                }), error -> batch.values().forEach(sinks -> sinks.forEach(sink -> sink.error(error))));
+    }
+
+    private static final class PendingLoad {
+        private final Long userId;
+        private final MonoSink<UserEntity> sink;
+
+        private PendingLoad(Long userId, MonoSink<UserEntity> sink) {
+            this.userId = userId;
+            this.sink = sink;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.acme.taskmanager.repository;
 
 import com.acme.taskmanager.entity.UserEntity;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.stereotype.Repository;
@@ -12,12 +13,22 @@ import org.springframework.stereotype.Repository;
 public class UserRepository extends CriteriaBasedRepository<UserEntity, Long> {
 
     @Autowired
-    public UserRepository(R2dbcEntityTemplate r2dbcEntityTemplate) {
-        super(r2dbcEntityTemplate);
+    public UserRepository(R2dbcEntityTemplate r2dbcEntityTemplate, MeterRegistry meterRegistry) {
+        super(r2dbcEntityTemplate, meterRegistry);
     }
 
     @Override
     public Class<UserEntity> getEntityClass() {
         return UserEntity.class;
     }
+
+    @Override
+    protected Long getOwnerId(Long id) {
+        return id;
+    }
+
+    @Override
+    protected Long getOwnerIdOfEntity(UserEntity entity) {
+        return entity.getId();
+    }
 }
@@ -0,0 +1,130 @@
+package com.acme.taskmanager.search;
+
+import com.acme.taskmanager.entity.TaskEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index of the names and descriptions of the tasks of a user.
+ *
+ * Terms are lower-cased words of at least {@value #MIN_TERM_LENGTH} letters or digits, like the default tokens
+ * of an InnoDB FULLTEXT index. Matching tasks contain any of the search terms and are ranked by BM25.
+ */
+final class InvertedTaskIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private long totalLength;
+
+    InvertedTaskIndex(Iterable<TaskEntity> tasks) {
+        tasks.forEach(task -> put(task.getId(), task.getName(), task.getDescription()));
+    }
+
+    /**
+     * Adds a created task.
+     */
+    synchronized void add(TaskEntity task) {
+        put(task.getId(), task.getName(), task.getDescription());
+    }
+
+    /**
+     * Applies a partial update of a task, a null name or description is left unchanged.
+     */
+    synchronized void update(Long taskId, TaskEntity changes) {
+        var document = documents.get(taskId);
+        if (document != null && (changes.getName() != null || changes.getDescription() != null)) {
+            put(taskId, changes.getName() != null ? changes.getName() : document.name,
+                    changes.getDescription() != null ? changes.getDescription() : document.description);
+        }
+    }
+
+    synchronized void remove(Long taskId) {
+        var document = documents.remove(taskId);
+        if (document != null) {
+            totalLength -= document.length;
+            document.termFrequencies.keySet().forEach(term -> {
+                var taskIds = postings.get(term);
+                taskIds.remove(taskId);
+                if (taskIds.isEmpty()) {
+                    postings.remove(term);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the ids of the tasks matching any of the terms of the query, by descending relevance and ascending id.
+     */
+    synchronized List<Long> search(String query, long offset, int limit) {
+        var terms = tokenize(query).keySet();
+        if (terms.isEmpty() || documents.isEmpty()) {
+            return List.of();
+        }
+        var averageLength = Math.max(1.0, (double) totalLength / documents.size());
+        var scores = new HashMap<Long, Double>();
+        for (var term : terms) {
+            var taskIds = postings.getOrDefault(term, Map.of());
+            var idf = Math.log(1 + (documents.size() - taskIds.size() + 0.5) / (taskIds.size() + 0.5));
+            taskIds.forEach((taskId, frequency) -> {
+                var length = documents.get(taskId).length;
+                var score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+                scores.merge(taskId, score, Double::sum);
+            });
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    synchronized int size() {
+        return documents.size();
+    }
+
+    private void put(Long taskId, String name, String description) {
+        remove(taskId);
+        var termFrequencies = tokenize(name);
+        tokenize(description).forEach((term, frequency) -> termFrequencies.merge(term, frequency, Integer::sum));
+        var document = new Document(name, description, termFrequencies);
+        documents.put(taskId, document);
+        totalLength += document.length;
+        termFrequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(taskId, frequency));
+    }
+
+    static Map<String, Integer> tokenize(String text) {
+        var termFrequencies = new HashMap<String, Integer>();
+        if (text != null) {
+            for (var term : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    termFrequencies.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return termFrequencies;
+    }
+
+    private static final class Document {
+        private final String name;
+        private final String description;
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        private Document(String name, String description, Map<String, Integer> termFrequencies) {
+            this.name = name;
+            this.description = description;
+            this.termFrequencies = termFrequencies;
+            this.length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.acme.taskmanager.search;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search over the names and descriptions of the tasks of a user.
+ *
+ * Searches run on the FULLTEXT index of the database if it has one, which is checked once. Otherwise they run on
+ * an in-process {@link InvertedTaskIndex} per user, built from the tasks of the user on the first search and kept
+ * in sync by the task changes of this instance, bulk changes drop the index of the user. Changes of other instances
+ * are picked up after the TTL. The indexes are published as the "task-search" cache metrics.
+ */
+@Component
+public class TaskSearch {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskSearch.class);
+
+    private final TaskRepository taskRepository;
+    private final AsyncCache<Long, InvertedTaskIndex> indexes;
+    private final Mono<Boolean> fullTextIndex;
+
+    @Autowired
+    public TaskSearch(TaskRepository taskRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${task-search.full-text}") boolean fullText,
+                      @Value("${task-search.maximum-size}") long maximumSize,
+                      @Value("${task-search.ttl}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.indexes = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync(), "task-search");
+        this.fullTextIndex = fullText
+                ? Mono.defer(taskRepository::hasFullTextIndex)
+                .doOnNext(available -> LOGGER.info("Task search uses the {}",
+                        available ? "FULLTEXT index of the database" : "in-process index"))
+                .cache(available -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO)
+                : Mono.just(false);
+    }
+
+    /**
+     * Returns the tasks of a user matching any term of the query, by descending relevance.
+     */
+    public Flux<TaskEntity> search(Long userId, String query, long offset, int limit) {
+        return fullTextIndex
+                .onErrorResume(DataAccessException.class, error -> {
+                    LOGGER.warn("Could not check the FULLTEXT index, searching the in-process index", error);
+                    return Mono.just(false);
+                })
+                .flatMapMany(available -> available
+                        ? taskRepository.searchByUserId(userId, query, offset, limit)
+                        : searchIndex(userId, query, offset, limit));
+    }
+
+    @EventListener
+    public void onTaskChange(TaskChangeEvent event) {
+        var future = indexes.getIfPresent(event.getUserId());
+        if (future == null) {
+            return;
+        }
+        if (!future.isDone()) {
+            // the index being built may or may not contain the change
+            indexes.synchronous().invalidate(event.getUserId());
+            return;
+        }
+        var index = future.getNow(null);
+        if (index == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED:
+                index.add(event.getTask());
+                break;
+            case UPDATED:
+            case EXPIRED:
+                index.update(event.getTaskId(), event.getTask());
+                break;
+            case DELETED:
+                index.remove(event.getTaskId());
+                break;
+            case RESYNC:
+                indexes.synchronous().invalidate(event.getUserId());
+                break;
+        }
+    }
+
+    private Flux<TaskEntity> searchIndex(Long userId, String query, long offset, int limit) {
+        return Mono.defer(() -> Mono.fromFuture(indexes.get(userId, (id, executor) -> taskRepository.findAllByUserId(id)
+                        .collectList()
+                        .map(InvertedTaskIndex::new)
+                        .toFuture())))
+                .map(index -> index.search(query, offset, limit))
+                .flatMapMany(taskIds -> taskRepository.findAllByUserIdAndIdIn(userId, taskIds)
+                        .collectMap(TaskEntity::getId, Function.identity())
+                        .flatMapIterable(tasks -> inOrder(taskIds, tasks)));
+    }
+
+    /**
+     * Orders the tasks by the ranked ids, skipping the tasks deleted meanwhile.
+     */
+    private static List<TaskEntity> inOrder(List<Long> taskIds, Map<Long, TaskEntity> tasks) {
+        return taskIds.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
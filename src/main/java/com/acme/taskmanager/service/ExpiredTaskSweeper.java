@@ -0,0 +1,182 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.repository.LeaseRepository;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marks expired pending tasks as done.
+ *
+ * A sweep keeps issuing single-statement chunk updates until a chunk comes back partially filled,
+ * so a backlog is drained in one run. The chunk size is halved when a statement takes longer
+ * than the target latency and doubled when it is well below it. Sweeps never overlap.
+ *
+ * Only the node holding the sweeper lease sweeps. The lease is renewed before every chunk and kept between
+ * sweeps, so it should live longer than the scheduling delay. It is released on shutdown and taken over
+ * by another node once it expires if its holder dies.
+ *
+ * A chunk statement does not return the tasks it expired, so unlike the expiry engine the sweeps publish no task
+ * changes.
+ *
+ * The backlog found by the last sweep, the number of tasks expired per sweep and the duration of the sweeps,
+ * including the failed ones and the ones without the lease, are published as metrics.
+ */
+@Service
+public class ExpiredTaskSweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpiredTaskSweeper.class);
+    private static final String LEASE_NAME = "expired-task-sweeper";
+
+    private final TaskRepository taskRepository;
+    private final LeaseRepository leaseRepository;
+    private final Duration expiration;
+    private final Integer minChunkSize;
+    private final Integer maxChunkSize;
+    private final long targetChunkLatencyNanos;
+    private final AtomicInteger chunkSize;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean leaseHeld = new AtomicBoolean();
+    private final AtomicLong backlog = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Timer sweepTimer;
+    private final DistributionSummary sweptTasks;
+
+    @Autowired
+    public ExpiredTaskSweeper(TaskRepository taskRepository,
+                              LeaseRepository leaseRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${expired-task-scheduler.expiration}") Duration expiration,
+                              @Value("${expired-task-scheduler.chunk-size}") Integer chunkSize,
+                              @Value("${expired-task-scheduler.min-chunk-size}") Integer minChunkSize,
+                              @Value("${expired-task-scheduler.max-chunk-size}") Integer maxChunkSize,
+                              @Value("${expired-task-scheduler.target-chunk-latency}") Duration targetChunkLatency,
+                              @Value("${expired-task-scheduler.lease-ttl}") Duration leaseTtl) {
+        if (minChunkSize < 1 || minChunkSize > chunkSize || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("chunk sizes must satisfy 0 < min-chunk-size <= chunk-size <= max-chunk-size");
+        }
+        this.taskRepository = taskRepository;
+        this.leaseRepository = leaseRepository;
+        this.expiration = expiration;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkLatencyNanos = targetChunkLatency.toNanos();
+        this.chunkSize = new AtomicInteger(chunkSize);
+        this.leaseTtl = leaseTtl;
+        this.meterRegistry = meterRegistry;
+        this.sweepTimer = Timer.builder("expired.tasks.sweep")
+                .description("Duration of expired task sweeps")
+                .register(meterRegistry);
+        this.sweptTasks = DistributionSummary.builder("expired.tasks.swept")
+                .description("Number of tasks expired per sweep")
+                .register(meterRegistry);
+        Gauge.builder("expired.tasks.backlog", backlog, AtomicLong::get)
+                .description("Number of expired pending tasks found by the last sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sweeps all tasks expired by now and emits their number,
+     * completes empty if the previous sweep is still running or another node holds the lease.
+     */
+    public Mono<Integer> sweep() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                LOGGER.debug("Skipping sweep, the previous one is still running");
+                return Mono.empty();
+            }
+            var expirationDateTime = LocalDateTime.now().minusNanos(expiration.toNanos());
+            var sample = Timer.start(meterRegistry);
+            return renewLease()
+                    .filter(acquired -> acquired)
+                    .flatMap(acquired -> taskRepository.countPendingTasksBeforeDateTime(expirationDateTime))
+                    .doOnNext(backlog::set)
+                    .flatMap(pending -> sweepChunk(expirationDateTime)
+                            .expand(chunk -> chunk.getT2() < chunk.getT1() ? Mono.empty() : sweepChunk(expirationDateTime))
+                            .map(Tuple2::getT2)
+                            .reduce(Integer::sum))
+                    .doOnNext(sweptTasks::record)
+                    .doFinally(signal -> {
+                        sample.stop(sweepTimer);
+                        running.set(false);
+                    });
+        });
+    }
+
+    /**
+     * Hands the lease over to the other nodes.
+     */
+    @PreDestroy
+    public void releaseLease() {
+        if (leaseHeld.getAndSet(false)) {
+            try {
+                leaseRepository.release(LEASE_NAME, owner, LocalDateTime.now()).block(leaseTtl);
+            } catch (RuntimeException exception) {
+                LOGGER.warn("Could not release expired task sweeper lease", exception);
+            }
+        }
+    }
+
+    int getChunkSize() {
+        return chunkSize.get();
+    }
+
+    /**
+     * Renews the lease and emits whether this node holds it.
+     */
+    private Mono<Boolean> renewLease() {
+        return Mono.defer(() -> {
+            var now = LocalDateTime.now();
+            return leaseRepository.tryAcquire(LEASE_NAME, owner, now, now.plus(leaseTtl));
+        }).doOnNext(acquired -> {
+            if (leaseHeld.getAndSet(acquired) != acquired) {
+                LOGGER.info(acquired ? "Acquired expired task sweeper lease as {}" : "Lost expired task sweeper lease as {}", owner);
+            }
+        });
+    }
+
+    /**
+     * Updates a single chunk while holding the lease and emits its limit with the number of updated tasks.
+     */
+    private Mono<Tuple2<Integer, Integer>> sweepChunk(LocalDateTime expirationDateTime) {
+        return renewLease().filter(acquired -> acquired).flatMap(acquired -> {
+            var limit = chunkSize.get();
+            var start = System.nanoTime();
+            return taskRepository.updatePendingTasksBeforeDateTime(expirationDateTime, TaskStatus.DONE, limit)
+                    .doOnNext(count -> adaptChunkSize(limit, count, System.nanoTime() - start))
+                    .map(count -> Tuples.of(limit, count));
+        });
+    }
+
+    private void adaptChunkSize(int limit, int count, long latencyNanos) {
+        if (latencyNanos > targetChunkLatencyNanos) {
+            chunkSize.set(Math.max(minChunkSize, limit / 2));
+        } else if (count >= limit && latencyNanos < targetChunkLatencyNanos / 2) {
+            chunkSize.set(Math.min(maxChunkSize, limit * 2));
+        }
+        if (chunkSize.get() != limit) {
+            LOGGER.debug("Expired task chunk size changed from {} to {} after {} ms", limit, chunkSize.get(),
+                    Duration.ofNanos(latencyNanos).toMillis());
+        }
+    }
+}
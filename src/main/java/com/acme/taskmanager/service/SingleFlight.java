@@ -0,0 +1,68 @@
+package com.acme.taskmanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one in-flight call, if enabled.
+ *
+ * A call subscribed while another one for its key is in flight gets the outcome of that one, value, emptiness or
+ * error, instead of running again. A started call runs to completion even if its subscribers cancel, in the context
+ * of the subscriber which started it, and cancelling only detaches that subscriber. Outcomes are not cached: a call
+ * subscribed after the in-flight one has completed runs again. The coalesced calls are counted as "request.coalesced"
+ * per {@code operation}.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value, shared by the coalesced calls
+ */
+public final class SingleFlight<K, V> {
+    private final boolean enabled;
+    private final Counter coalesced;
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry, String operation, boolean enabled) {
+        this.enabled = enabled;
+        this.coalesced = Counter.builder("request.coalesced")
+                .description("Number of calls which joined an identical call in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call for the key, unless one is already in flight.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.deferContextual(context -> {
+            var started = new AtomicReference<Mono<V>>();
+            var flight = inFlight.computeIfAbsent(key, flightKey -> {
+                var shared = Mono.defer(call)
+                        .doFinally(signal -> inFlight.remove(flightKey, started.get()))
+                        .contextWrite(context)
+                        .cache();
+                started.set(shared);
+                return shared;
+            });
+            if (flight != started.get()) {
+                coalesced.increment();
+            } else {
+                // the cache never cancels its source, this subscription only starts the call; its subscribers get
+                // the outcome, errors included
+                flight.subscribe(value -> { }, error -> { });
+            }
+            return flight;
+        });
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,250 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskBulkCountDto;
+import com.acme.taskmanager.dto.TaskBulkRequestDto;
+import com.acme.taskmanager.dto.TaskBulkResultDto;
+import com.acme.taskmanager.dto.TaskRequestDto;
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.mapper.TaskMapper;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.type.BulkItemStatus;
+import com.acme.taskmanager.type.TaskChangeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Service for managing many tasks of a user at once.
+ *
+ * A bulk write publishes a single {@link TaskChangeType#RESYNC} change of the user once it has written any row,
+ * also if it fails midway, rather than a change per task.
+ */
+@Service
+public class TaskBulkService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskBulkService.class);
+
+    private final TaskRepository taskRepository;
+    private final UserEntityCache userEntityCache;
+    private final TaskMapper taskMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final Integer chunkSize;
+    private final Integer maxItems;
+
+    @Autowired
+    public TaskBulkService(TaskRepository taskRepository,
+                           UserEntityCache userEntityCache,
+                           TaskMapper taskMapper,
+                           ApplicationEventPublisher eventPublisher,
+                           Validator validator,
+                           @Value("${task-bulk.chunk-size}") Integer chunkSize,
+                           @Value("${task-bulk.max-items}") Integer maxItems) {
+        this.taskRepository = taskRepository;
+        this.userEntityCache = userEntityCache;
+        this.taskMapper = taskMapper;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Creates the given tasks for a user in chunks of multi-row INSERTs.
+     * Every item gets its own result, invalid or conflicting items do not abort the others. The items are validated
+     * against the constraints of {@link TaskRequestDto}, as a single task request is.
+     */
+    public Flux<TaskBulkResultDto> createTasks(Long userId, List<TaskRequestDto> tasks) {
+        if (tasks.size() > maxItems) {
+            return Flux.error(new IllegalArgumentException("at most " + maxItems + " tasks can be created at once"));
+        }
+        return requireUser(userId)
+                .flatMapMany(exists -> {
+                    var requestedNames = new HashSet<String>();
+                    var written = new AtomicBoolean();
+                    return Flux.range(0, (tasks.size() + chunkSize - 1) / chunkSize)
+                            .concatMap(chunk -> createChunk(userId, tasks, chunk * chunkSize,
+                                    Math.min(tasks.size(), (chunk + 1) * chunkSize), requestedNames))
+                            .doOnNext(result -> {
+                                if (result.getStatus() == BulkItemStatus.CREATED) {
+                                    written.set(true);
+                                }
+                            })
+                            .doFinally(signal -> publishResync(userId, written));
+                })
+                .doOnError(error -> LOGGER.error("Could not create tasks with userId=" + userId, error));
+    }
+
+    /**
+     * Changes the status of the selected tasks of a user, one set-based UPDATE per chunk.
+     */
+    public Mono<TaskBulkCountDto> updateTaskStatus(Long userId, TaskBulkRequestDto request) {
+        if (request.getStatus() == null) {
+            return Mono.error(new IllegalArgumentException("status must not be null"));
+        }
+        return applyToSelection(userId, request,
+                ids -> taskRepository.updateStatusByUserIdAndIdIn(userId, ids, request.getStatus()),
+                () -> taskRepository.updateStatusByUserIdAndFilter(userId, request.getFilter().getStatus(),
+                        request.getFilter().getDateTimeFrom(), request.getFilter().getDateTimeTo(),
+                        request.getStatus(), chunkSize))
+                .doOnError(error -> LOGGER.error("Could not update tasks with userId=" + userId, error));
+    }
+
+    /**
+     * Deletes the selected tasks of a user, one set-based DELETE per chunk.
+     */
+    public Mono<TaskBulkCountDto> deleteTasks(Long userId, TaskBulkRequestDto request) {
+        return applyToSelection(userId, request,
+                ids -> taskRepository.deleteByUserIdAndIdIn(userId, ids),
+                () -> taskRepository.deleteByUserIdAndFilter(userId, request.getFilter().getStatus(),
+                        request.getFilter().getDateTimeFrom(), request.getFilter().getDateTimeTo(), chunkSize))
+                .doOnError(error -> LOGGER.error("Could not delete tasks with userId=" + userId, error));
+    }
+
+    /**
+     * Runs the statement for every chunk of ids, or repeats the LIMIT-ed filter statement
+     * until it affects less than a full chunk, and sums up the affected rows of an existing user.
+     */
+    private Mono<TaskBulkCountDto> applyToSelection(Long userId,
+                                                    TaskBulkRequestDto request,
+                                                    Function<List<Long>, Mono<Integer>> idStatement,
+                                                    Supplier<Mono<Integer>> filterStatement) {
+        if ((request.getIds() == null) == (request.getFilter() == null)) {
+            return Mono.error(new IllegalArgumentException("either ids or filter must be given"));
+        }
+        if (request.getIds() != null && request.getIds().size() > maxItems) {
+            return Mono.error(new IllegalArgumentException("at most " + maxItems + " ids can be given at once"));
+        }
+        Flux<Integer> counts = request.getIds() != null
+                ? Flux.fromIterable(request.getIds()).buffer(chunkSize).concatMap(idStatement)
+                : Mono.defer(filterStatement).expand(count -> count < chunkSize ? Mono.empty() : Mono.defer(filterStatement));
+        return requireUser(userId).flatMap(exists -> {
+            var written = new AtomicBoolean();
+            return counts.doOnNext(count -> {
+                        if (count > 0) {
+                            written.set(true);
+                        }
+                    })
+                    .reduce(0, Integer::sum)
+                    .map(TaskBulkCountDto::new)
+                    .doFinally(signal -> publishResync(userId, written));
+        });
+    }
+
+    private Mono<Boolean> requireUser(Long userId) {
+        return userEntityCache.existsById(userId)
+                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")));
+    }
+
+    private void publishResync(Long userId, AtomicBoolean written) {
+        if (written.get()) {
+            eventPublisher.publishEvent(new TaskChangeEvent(TaskChangeType.RESYNC, userId, null, null));
+        }
+    }
+
+    private Flux<TaskBulkResultDto> createChunk(Long userId, List<TaskRequestDto> tasks, int from, int to,
+                                                Set<String> requestedNames) {
+        var results = new TaskBulkResultDto[to - from];
+        var candidates = new LinkedHashMap<Integer, TaskEntity>();
+        for (int index = from; index < to; index++) {
+            var task = tasks.get(index);
+            var violations = task == null ? "must not be null" : validate(task);
+            if (violations != null) {
+                results[index - from] = new TaskBulkResultDto(index, null, task == null ? null : task.getName(),
+                        BulkItemStatus.INVALID, violations);
+            } else if (!requestedNames.add(normalize(task.getName()))) {
+                results[index - from] = new TaskBulkResultDto(index, null, task.getName(), BulkItemStatus.CONFLICT,
+                        "duplicate task name in request");
+            } else {
+                candidates.put(index, taskMapper.toBuilder(task).setUserId(userId).build());
+            }
+        }
+        var candidateNames = candidates.values().stream().map(TaskEntity::getName).collect(Collectors.toList());
+        return taskRepository.findNamesByUserIdAndNameIn(userId, candidateNames)
+                .map(TaskBulkService::normalize)
+                .collect(Collectors.toSet())
+                .flatMapMany(existingNames -> {
+                    var inserts = new LinkedHashMap<Integer, TaskEntity>();
+                    candidates.forEach((index, task) -> {
+                        if (existingNames.contains(normalize(task.getName()))) {
+                            results[index - from] = new TaskBulkResultDto(index, null, task.getName(),
+                                    BulkItemStatus.CONFLICT, "task name already exists");
+                        } else {
+                            inserts.put(index, task);
+                        }
+                    });
+                    return insertChunk(userId, inserts);
+                })
+                .doOnNext(result -> results[result.getIndex() - from] = result)
+                .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+    }
+
+    /**
+     * Returns the constraint violations of the task in the format of the request validation errors, null if none.
+     */
+    private String validate(TaskRequestDto task) {
+        var violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private Flux<TaskBulkResultDto> insertChunk(Long userId, Map<Integer, TaskEntity> inserts) {
+        if (inserts.isEmpty()) {
+            return Flux.empty();
+        }
+        var indexByName = new HashMap<String, Integer>();
+        inserts.forEach((index, task) -> indexByName.put(task.getName(), index));
+        return taskRepository.saveAll(userId, new ArrayList<>(inserts.values()))
+                .map(task -> new TaskBulkResultDto(indexByName.get(task.getName()), task.getId(), task.getName(),
+                        BulkItemStatus.CREATED, null))
+                .collectList()
+                .flatMapMany(Flux::fromIterable)
+                // a concurrent insert won the race for one of the names, retry the chunk row by row
+                .onErrorResume(DataIntegrityViolationException.class, error -> Flux.fromIterable(inserts.entrySet())
+                        .concatMap(entry -> insertOne(entry.getKey(), entry.getValue())));
+    }
+
+    private Mono<TaskBulkResultDto> insertOne(Integer index, TaskEntity task) {
+        return taskRepository.save(task)
+                .map(saved -> new TaskBulkResultDto(index, saved.getId(), saved.getName(), BulkItemStatus.CREATED, null))
+                .onErrorResume(DataIntegrityViolationException.class, error -> Mono.just(
+                        new TaskBulkResultDto(index, null, task.getName(), BulkItemStatus.CONFLICT,
+                                Optional.ofNullable(error.getRootCause()).map(Throwable::getMessage).orElse(null))));
+    }
+
+    /**
+     * Task names are unique case-insensitively and ignoring trailing spaces (default MariaDB collation).
+     */
+    private static String normalize(String name) {
+        return name.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,186 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskChangeDto;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.mapper.TaskMapper;
+import com.acme.taskmanager.type.TaskChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the task changes of a user to its subscribers as server-sent events named by the change type.
+ *
+ * Every subscriber buffers at most {@code task-feed.buffer-size} changes its client has not taken yet. If the buffer
+ * overflows, the buffered changes are dropped and a single {@value #RESYNC} event is sent in their place once the
+ * client catches up, telling it to reload the tasks, so a slow client costs a bounded amount of memory.
+ *
+ * The feed carries the changes made by this instance, i.e. the task writes and the expiries of the expiry engine, but
+ * not those of the backlog sweeps. A bulk write is sent as a {@value #RESYNC} event too, replacing the changes still
+ * buffered. A heartbeat comment is sent right away, so the client knows when it has been subscribed, and then
+ * periodically to keep idle connections open.
+ */
+@Service
+public class TaskChangeFeed {
+    static final String RESYNC = "RESYNC";
+
+    private static final ServerSentEvent<TaskChangeDto> RESYNC_EVENT = ServerSentEvent.<TaskChangeDto>builder()
+            .event(RESYNC)
+            .build();
+    private static final ServerSentEvent<TaskChangeDto> HEARTBEAT_EVENT = ServerSentEvent.<TaskChangeDto>builder()
+            .comment("heartbeat")
+            .build();
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final UserEntityCache userEntityCache;
+    private final TaskMapper taskMapper;
+    private final Integer bufferSize;
+    private final Duration heartbeat;
+    private final Counter resyncs;
+
+    @Autowired
+    public TaskChangeFeed(UserEntityCache userEntityCache,
+                          TaskMapper taskMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${task-feed.buffer-size}") Integer bufferSize,
+                          @Value("${task-feed.heartbeat}") Duration heartbeat) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("buffer-size must be positive");
+        }
+        this.userEntityCache = userEntityCache;
+        this.taskMapper = taskMapper;
+        this.bufferSize = bufferSize;
+        this.heartbeat = heartbeat;
+        this.resyncs = Counter.builder("task.feed.resyncs")
+                .description("Number of task feed subscribers told to reload the tasks after their buffer overflowed")
+                .register(meterRegistry);
+        Gauge.builder("task.feed.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Number of task feed subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams the changes of the tasks of a user made from now on, after a first heartbeat.
+     */
+    public Flux<ServerSentEvent<TaskChangeDto>> subscribe(Long userId) {
+        return userEntityCache.existsById(userId)
+                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
+                .flatMapMany(exists -> Flux.merge(1, changes(userId), Flux.interval(Duration.ZERO, heartbeat)
+                        .onBackpressureDrop()
+                        .map(tick -> HEARTBEAT_EVENT)));
+    }
+
+    @EventListener
+    public void onTaskChange(TaskChangeEvent event) {
+        var userSubscribers = subscribers.get(event.getUserId());
+        if (userSubscribers == null) {
+            return;
+        }
+        if (event.getType() == TaskChangeType.RESYNC) {
+            userSubscribers.forEach(Subscriber::resync);
+            return;
+        }
+        var change = ServerSentEvent.builder(taskMapper.toChangeDto(event))
+                .event(event.getType().name())
+                .build();
+        userSubscribers.forEach(subscriber -> subscriber.offer(change));
+    }
+
+    int size() {
+        return subscriberCount.get();
+    }
+
+    private Flux<ServerSentEvent<TaskChangeDto>> changes(Long userId) {
+        return Flux.create(sink -> {
+            var subscriber = new Subscriber(sink);
+            subscribers.compute(userId, (id, userSubscribers) -> {
+                var registered = userSubscribers == null ? ConcurrentHashMap.<Subscriber>newKeySet() : userSubscribers;
+                registered.add(subscriber);
+                return registered;
+            });
+            subscriberCount.incrementAndGet();
+            sink.onRequest(requested -> subscriber.drain());
+            sink.onDispose(() -> {
+                subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                    userSubscribers.remove(subscriber);
+                    return userSubscribers.isEmpty() ? null : userSubscribers;
+                });
+                subscriberCount.decrementAndGet();
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * Buffers the changes for a subscriber until it requests them.
+     */
+    private final class Subscriber {
+        private final FluxSink<ServerSentEvent<TaskChangeDto>> sink;
+        private final Queue<ServerSentEvent<TaskChangeDto>> buffer = new ArrayDeque<>();
+        private boolean resync;
+        private boolean draining;
+
+        private Subscriber(FluxSink<ServerSentEvent<TaskChangeDto>> sink) {
+            this.sink = sink;
+        }
+
+        synchronized void offer(ServerSentEvent<TaskChangeDto> change) {
+            if (resync) {
+                // the pending resync covers the change
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.clear();
+                resync = true;
+                resyncs.increment();
+            } else {
+                buffer.add(change);
+            }
+            drain();
+        }
+
+        synchronized void resync() {
+            buffer.clear();
+            resync = true;
+            drain();
+        }
+
+        synchronized void drain() {
+            if (draining) {
+                return;
+            }
+            draining = true;
+            try {
+                while (sink.requestedFromDownstream() > 0 && (resync || !buffer.isEmpty())) {
+                    if (resync) {
+                        resync = false;
+                        sink.next(RESYNC_EVENT);
+                    } else {
+                        sink.next(buffer.poll());
+                    }
+                }
+            } finally {
+                draining = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.acme.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for pagination of tasks.
+ *
+ * The token of a keyset page wraps the id of the last task on the previous page, so the next page
+ * can be fetched with {@code id > lastId} instead of an OFFSET. Ranked search results have no stable key,
+ * so their token wraps the offset of the next page.
+ */
+final class TaskCursor {
+    private static final String KEYSET_PREFIX = "t1:";
+    private static final String OFFSET_PREFIX = "o1:";
+
+    private final String prefix;
+    private final Long position;
+
+    private TaskCursor(String prefix, Long position) {
+        this.prefix = prefix;
+        this.position = position;
+    }
+
+    static TaskCursor first() {
+        return new TaskCursor(KEYSET_PREFIX, 0L);
+    }
+
+    static TaskCursor after(Long lastId) {
+        return new TaskCursor(KEYSET_PREFIX, lastId);
+    }
+
+    static TaskCursor at(long offset) {
+        return new TaskCursor(OFFSET_PREFIX, offset);
+    }
+
+    static TaskCursor decode(String token) {
+        return token == null || token.isEmpty() ? first() : decode(token, KEYSET_PREFIX);
+    }
+
+    static TaskCursor decodeOffset(String token) {
+        return token == null || token.isEmpty() ? at(0) : decode(token, OFFSET_PREFIX);
+    }
+
+    private static TaskCursor decode(String token, String prefix) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            var position = Long.parseLong(decoded.substring(prefix.length()));
+            if (position < 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return new TaskCursor(prefix, position);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("invalid cursor", exception);
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    Long getLastId() {
+        return position;
+    }
+
+    long getOffset() {
+        return position;
+    }
+}
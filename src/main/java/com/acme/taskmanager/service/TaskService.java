@@ -1,18 +1,33 @@
 package com.acme.taskmanager.service;
 
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskFilterDto;
 import com.acme.taskmanager.dto.TaskRequestDto;
 import com.acme.taskmanager.dto.TaskInfoDto;
+import com.acme.taskmanager.dto.TaskPageDto;
 import com.acme.taskmanager.dto.TaskResponseDto;
+import com.acme.taskmanager.event.TaskChangeEvent;
 import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.exception.PreconditionFailedException;
 import com.acme.taskmanager.mapper.TaskMapper;
+import com.acme.taskmanager.repository.TaskInsertBatcher;
 import com.acme.taskmanager.repository.TaskRepository;
-import com.acme.taskmanager.repository.UserRepository;
+import com.acme.taskmanager.search.TaskSearch;
+import com.acme.taskmanager.type.TaskChangeType;
+import com.acme.taskmanager.type.TaskSort;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.stream.Collectors;
 
 /**
  * Service for managing tasks.
@@ -20,58 +35,193 @@ import reactor.core.publisher.Mono;
 @Service
 public class TaskService {
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskService.class);
+    private static final String DESCENDING_PREFIX = "-";
 
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final TaskInsertBatcher taskInsertBatcher;
+    private final TaskSearch taskSearch;
+    private final UserEntityCache userEntityCache;
     private final TaskMapper taskMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Integer defaultPageSize;
+    private final Integer maxPageSize;
+    private final Integer streamingPrefetch;
+    private final SingleFlight<Tuple2<Long, Long>, Versioned<TaskInfoDto>> taskInfoFlights;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper) {
+    public TaskService(TaskRepository taskRepository,
+                       TaskInsertBatcher taskInsertBatcher,
+                       TaskSearch taskSearch,
+                       UserEntityCache userEntityCache,
+                       TaskMapper taskMapper,
+                       ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${task-pagination.default-page-size}") Integer defaultPageSize,
+                       @Value("${task-pagination.max-page-size}") Integer maxPageSize,
+                       @Value("${list-streaming.prefetch}") Integer streamingPrefetch,
+                       @Value("${request-coalescing.enabled}") boolean coalescing) {
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.taskInsertBatcher = taskInsertBatcher;
+        this.taskSearch = taskSearch;
+        this.userEntityCache = userEntityCache;
         this.taskMapper = taskMapper;
+        this.eventPublisher = eventPublisher;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamingPrefetch = streamingPrefetch;
+        this.taskInfoFlights = new SingleFlight<>(meterRegistry, "getTaskInfo", coalescing);
     }
 
     public Mono<TaskResponseDto> createTask(Long userId, TaskRequestDto task) {
-        return userRepository.existsById(userId)
+        return userEntityCache.existsById(userId)
                 .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
                 .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
-                .flatMap(exists -> taskRepository.save(taskMapper.toBuilder(task).setUserId(userId).build()))
+                .flatMap(exists -> taskInsertBatcher.save(taskMapper.toBuilder(task).setUserId(userId).build()))
+                .doOnNext(created -> eventPublisher.publishEvent(
+                        new TaskChangeEvent(TaskChangeType.CREATED, userId, created.getId(), created)))
                 .doOnError(error -> LOGGER.error("Could not create task with userId=" + userId, error))
                 .map(taskMapper::toReponseDto);
     }
 
-    public Mono<Void> updateTask(Long userId, Long taskId, TaskRequestDto task) {
-        return taskRepository.existsByIdAndUserId(userId, taskId)
-                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("entity does not exists")))
-                .flatMap(exists -> taskRepository.updateNonNull(taskId, taskMapper.toEntity(task)))
+    /**
+     * Updates a task, if the expected version is given the task is only updated if it still has that version.
+     */
+    public Mono<Void> updateTask(Long userId, Long taskId, TaskRequestDto task, Long expectedVersion) {
+        var entity = taskMapper.toEntity(task);
+        return taskRepository.updateNonNullByIdAndUserId(taskId, userId, entity, expectedVersion)
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        eventPublisher.publishEvent(new TaskChangeEvent(TaskChangeType.UPDATED, userId, taskId, entity));
+                    }
+                })
+                .flatMap(count -> count > 0 || expectedVersion == null ? Mono.just(count)
+                        : taskRepository.existsByIdAndUserId(taskId, userId)
+                        .flatMap(exists -> exists
+                                ? Mono.error(new PreconditionFailedException("task has been modified"))
+                                : Mono.just(count)))
                 .doOnError(error -> LOGGER.error("Could not update task with userId=" + userId + " and taskId=" + taskId, error))
-                .flatMap(count -> count > 0 ? Mono.empty() : Mono.error(new EntityNotFoundException("could not update entity")));
+                .flatMap(count -> count > 0 ? Mono.empty() : Mono.error(new EntityNotFoundException("entity does not exists")));
     }
 
     public Mono<Void> deleteTask(Long userId, Long taskId) {
-        return taskRepository.existsByIdAndUserId(userId, taskId)
-                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("entity does not exists")))
-                .flatMap(exists -> taskRepository.deleteById(taskId))
+        return taskRepository.deleteByIdAndUserId(taskId, userId)
+                .doOnSuccess(deleted -> eventPublisher.publishEvent(
+                        new TaskChangeEvent(TaskChangeType.DELETED, userId, taskId, null)))
                 .doOnError(error -> LOGGER.error("Could not delete task with userId=" + userId + " and taskId=" + taskId, error));
     }
 
-    public Mono<TaskInfoDto> getTaskInfo(Long userId, Long taskId) {
-        return userRepository.findById(userId)
-                .flatMap(existingUser -> taskRepository.findByIdAndUserId(taskId, userId)
-                        .map(task -> taskMapper.toInfoDto(task, existingUser)))
+    /**
+     * Returns the task info tagged with the versions of the task and its owner,
+     * concurrent requests for the same task share one query.
+     */
+    public Mono<Versioned<TaskInfoDto>> getTaskInfo(Long userId, Long taskId) {
+        return taskInfoFlights.execute(Tuples.of(userId, taskId), () -> taskRepository.findWithUserByIdAndUserId(taskId, userId)
+                .map(taskWithUser -> Versioned.of(() -> taskMapper.toInfoDto(taskWithUser.getT1(), taskWithUser.getT2()),
+                        taskWithUser.getT1().getVersion(), taskWithUser.getT2().getVersion()))
                 .switchIfEmpty(Mono.error(new EntityNotFoundException("entity does not exists")))
-                .doOnError(error -> LOGGER.error("Could not get task info with userId=" + userId + " and taskId=" + taskId, error));
+                .doOnError(error -> LOGGER.error("Could not get task info with userId=" + userId + " and taskId=" + taskId, error)));
     }
 
-    public Flux<TaskResponseDto> listAllTasksForAUser(Long userId) {
-        return userRepository.existsById(userId)
-                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
-                .flatMapMany(existingUser -> taskRepository.findAllByUserId(userId))
+    /**
+     * Lists the tasks of a user matching the optional filter, sorted by {@code sort} which is a column name,
+     * descending if prefixed with '-', or unsorted if not given.
+     */
+    public Flux<TaskResponseDto> listAllTasksForAUser(Long userId, TaskFilterDto filter, String sort) {
+        return Mono.fromCallable(() -> toTaskSort(filter, sort))
+                .flatMapMany(taskSort -> userEntityCache.existsById(userId)
+                        .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                        .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
+                        .flatMapMany(existingUser -> isEmpty(filter) && sort == null
+                                ? taskRepository.findAllByUserId(userId)
+                                : taskRepository.findAllByUserIdAndFilter(userId, filter.getStatus(),
+                                filter.getDateTimeFrom(), filter.getDateTimeTo(), taskSort,
+                                sort != null && sort.startsWith(DESCENDING_PREFIX))))
                 .doOnError(error -> LOGGER.error("Could not get tasks with userId=" + userId, error))
                 .map(taskMapper::toReponseDto);
     }
+
+    /**
+     * Streams all tasks of a user, requesting at most {@code list-streaming.prefetch} rows
+     * ahead of the subscriber, so a slow client slows down reading the database cursor.
+     */
+    public Flux<TaskResponseDto> streamAllTasksForAUser(Long userId, TaskFilterDto filter, String sort) {
+        return listAllTasksForAUser(userId, filter, sort)
+                .limitRate(streamingPrefetch);
+    }
+
+    /**
+     * Returns a page of the tasks of a user matching the optional filter, ordered by id.
+     */
+    public Mono<TaskPageDto> listTasksForAUser(Long userId, TaskFilterDto filter, String cursor, Integer size) {
+        if (size != null && size < 1) {
+            return Mono.error(new IllegalArgumentException("size must be positive"));
+        }
+        var pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return Mono.fromCallable(() -> {
+                    validate(filter);
+                    return TaskCursor.decode(cursor);
+                })
+                .flatMap(taskCursor -> userEntityCache.existsById(userId)
+                        .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                        .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
+                        .flatMapMany(exists -> isEmpty(filter)
+                                ? taskRepository.findAllByUserIdAfterId(userId, taskCursor.getLastId(), pageSize + 1)
+                                : taskRepository.findAllByUserIdAndFilterAfterId(userId, filter.getStatus(),
+                                filter.getDateTimeFrom(), filter.getDateTimeTo(), taskCursor.getLastId(), pageSize + 1))
+                        .collectList())
+                .doOnError(error -> LOGGER.error("Could not get task page with userId=" + userId, error))
+                .map(tasks -> {
+                    var hasNext = tasks.size() > pageSize;
+                    var page = hasNext ? tasks.subList(0, pageSize) : tasks;
+                    return new TaskPageDto(
+                            page.stream().map(taskMapper::toReponseDto).collect(Collectors.toList()),
+                            hasNext ? TaskCursor.after(page.get(page.size() - 1).getId()).encode() : null);
+                });
+    }
+
+    /**
+     * Returns a page of the tasks of a user matching any term of the query, ranked by relevance.
+     */
+    public Mono<TaskPageDto> searchTasksForAUser(Long userId, String query, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            return Mono.error(new IllegalArgumentException("query must not be blank"));
+        }
+        if (size != null && size < 1) {
+            return Mono.error(new IllegalArgumentException("size must be positive"));
+        }
+        var pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return Mono.fromCallable(() -> TaskCursor.decodeOffset(cursor))
+                .flatMap(taskCursor -> userEntityCache.existsById(userId)
+                        .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                        .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
+                        .flatMapMany(exists -> taskSearch.search(userId, query, taskCursor.getOffset(), pageSize + 1))
+                        .collectList()
+                        .map(tasks -> {
+                            var hasNext = tasks.size() > pageSize;
+                            var page = hasNext ? tasks.subList(0, pageSize) : tasks;
+                            return new TaskPageDto(
+                                    page.stream().map(taskMapper::toReponseDto).collect(Collectors.toList()),
+                                    hasNext ? TaskCursor.at(taskCursor.getOffset() + pageSize).encode() : null);
+                        }))
+                .doOnError(error -> LOGGER.error("Could not search tasks with userId=" + userId, error));
+    }
+
+    private static void validate(TaskFilterDto filter) {
+        if (filter.getDateTimeFrom() != null && filter.getDateTimeTo() != null
+                && filter.getDateTimeFrom().isAfter(filter.getDateTimeTo())) {
+            throw new IllegalArgumentException("date_time_from must not be after date_time_to");
+        }
+    }
+
+    private static boolean isEmpty(TaskFilterDto filter) {
+        return filter.getStatus() == null && filter.getDateTimeFrom() == null && filter.getDateTimeTo() == null;
+    }
+
+    private static TaskSort toTaskSort(TaskFilterDto filter, String sort) {
+        validate(filter);
+        if (sort == null) {
+            return TaskSort.ID;
+        }
+        return TaskSort.fromColumn(sort.startsWith(DESCENDING_PREFIX) ? sort.substring(DESCENDING_PREFIX.length()) : sort);
+    }
 }
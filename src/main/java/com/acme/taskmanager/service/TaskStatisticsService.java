@@ -0,0 +1,130 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskStatisticsDto;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.repository.LeaseRepository;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.repository.TaskStatisticsRepository;
+import com.acme.taskmanager.type.TaskStatus;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.UUID;
+
+/**
+ * Service for the task statistics of users.
+ *
+ * The number of tasks by status is read from the counts maintained by the task writes. The number of overdue tasks,
+ * i.e. pending tasks with a date time in the past, changes with time instead of writes, so it cannot be maintained
+ * like them and is counted on the (user_id, status, date_time) index instead. If {@code task-statistics.overdue-cache}
+ * is enabled, the count is cached per user for its TTL and invalidated by the task changes of this instance, so
+ * repeated views cost one count per TTL but may miss tasks which became overdue in the meantime.
+ *
+ * The counts are reconciled with the tasks by ranges of user ids, by the node holding the reconciliation lease.
+ */
+@Service
+public class TaskStatisticsService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskStatisticsService.class);
+    private static final String LEASE_NAME = "task-statistics-reconciliation";
+
+    private final TaskStatisticsRepository taskStatisticsRepository;
+    private final TaskRepository taskRepository;
+    private final LeaseRepository leaseRepository;
+    private final UserEntityCache userEntityCache;
+    private final Long chunkSize;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+    private final AsyncCache<Long, Long> overdueCounts;
+
+    @Autowired
+    public TaskStatisticsService(TaskStatisticsRepository taskStatisticsRepository,
+                                 TaskRepository taskRepository,
+                                 LeaseRepository leaseRepository,
+                                 UserEntityCache userEntityCache,
+                                 @Value("${task-statistics.reconciliation.chunk-size}") Long chunkSize,
+                                 @Value("${task-statistics.reconciliation.lease-ttl}") Duration leaseTtl,
+                                 @Value("${task-statistics.overdue-cache.enabled}") boolean overdueCacheEnabled,
+                                 @Value("${task-statistics.overdue-cache.maximum-size}") long overdueCacheMaximumSize,
+                                 @Value("${task-statistics.overdue-cache.ttl}") Duration overdueCacheTtl) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk-size must be positive");
+        }
+        this.taskStatisticsRepository = taskStatisticsRepository;
+        this.taskRepository = taskRepository;
+        this.leaseRepository = leaseRepository;
+        this.userEntityCache = userEntityCache;
+        this.chunkSize = chunkSize;
+        this.leaseTtl = leaseTtl;
+        this.overdueCounts = overdueCacheEnabled ? Caffeine.newBuilder()
+                .maximumSize(overdueCacheMaximumSize)
+                .expireAfterWrite(overdueCacheTtl)
+                .buildAsync() : null;
+    }
+
+    /**
+     * Returns the task statistics of a user. Counts which drifted below zero are reported as zero
+     * until they are reconciled.
+     */
+    public Mono<TaskStatisticsDto> getStatistics(Long userId) {
+        return userEntityCache.existsById(userId)
+                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
+                .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
+                .flatMap(exists -> Mono.zip(taskStatisticsRepository.findCountsByUserId(userId),
+                        countOverdue(userId)))
+                .map(statistics -> {
+                    var byStatus = new EnumMap<TaskStatus, Long>(TaskStatus.class);
+                    for (var status : TaskStatus.values()) {
+                        byStatus.put(status, Math.max(0L, statistics.getT1().getOrDefault(status, 0L)));
+                    }
+                    var total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+                    return new TaskStatisticsDto(total, byStatus, statistics.getT2());
+                })
+                .doOnError(error -> LOGGER.error("Could not get task statistics with userId=" + userId, error));
+    }
+
+    @EventListener
+    public void onTaskChange(TaskChangeEvent event) {
+        if (overdueCounts != null) {
+            overdueCounts.synchronous().invalidate(event.getUserId());
+        }
+    }
+
+    /**
+     * Recounts the tasks of all users chunk by chunk and emits the number of rows written,
+     * completes empty if another node holds the lease.
+     */
+    public Mono<Integer> reconcile() {
+        return Mono.defer(() -> {
+                    var now = LocalDateTime.now();
+                    return leaseRepository.tryAcquire(LEASE_NAME, owner, now, now.plus(leaseTtl));
+                })
+                .filter(acquired -> acquired)
+                .flatMap(acquired -> taskStatisticsRepository.findMaxUserId())
+                .flatMap(maxUserId -> Flux.range(0, (int) (maxUserId / chunkSize) + 1)
+                        .concatMap(chunk -> taskStatisticsRepository.reconcile(chunk * chunkSize,
+                                chunk * chunkSize + chunkSize - 1))
+                        .reduce(0, Integer::sum));
+    }
+
+    private Mono<Long> countOverdue(Long userId) {
+        if (overdueCounts == null) {
+            return taskRepository.countPendingByUserIdBeforeDateTime(userId, LocalDateTime.now());
+        }
+        return Mono.defer(() -> Mono.fromFuture(overdueCounts.get(userId, (id, executor) -> taskRepository
+                .countPendingByUserIdBeforeDateTime(id, LocalDateTime.now())
+                .toFuture())));
+    }
+}
@@ -1,14 +1,18 @@
 package com.acme.taskmanager.service;
 
+import com.acme.taskmanager.cache.UserEntityCache;
 import com.acme.taskmanager.dto.UserRequestDto;
 import com.acme.taskmanager.dto.UserInfoDto;
 import com.acme.taskmanager.dto.UserResponseDto;
 import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.exception.PreconditionFailedException;
 import com.acme.taskmanager.mapper.UserMapper;
 import com.acme.taskmanager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -21,27 +25,45 @@ public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
+    private final UserEntityCache userEntityCache;
     private final UserMapper userMapper;
+    private final Integer streamingPrefetch;
+    private final SingleFlight<Long, Versioned<UserInfoDto>> userInfoFlights;
 
     @Autowired
-    public UserService(UserRepository userRepository, UserMapper userMapper) {
+    public UserService(UserRepository userRepository,
+                       UserEntityCache userEntityCache,
+                       UserMapper userMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${list-streaming.prefetch}") Integer streamingPrefetch,
+                       @Value("${request-coalescing.enabled}") boolean coalescing) {
         this.userRepository = userRepository;
+        this.userEntityCache = userEntityCache;
         this.userMapper = userMapper;
+        this.streamingPrefetch = streamingPrefetch;
+        this.userInfoFlights = new SingleFlight<>(meterRegistry, "getUserInfo", coalescing);
     }
 
     public Mono<UserResponseDto> createUser(UserRequestDto user) {
         return userRepository.save(userMapper.toEntity(user))
+                .doOnNext(created -> userEntityCache.invalidate(created.getId()))
                 .doOnError(error -> LOGGER.error("Could not create user", error))
                 .map(userMapper::toResponseDto);
     }
 
-    public Mono<Void> updateUser(Long userId, UserRequestDto user) {
-        return userRepository.existsById(userId)
-                .flatMap(exists -> exists ? Mono.just(exists) : Mono.empty())
-                .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
-                .flatMap(exists -> userRepository.updateNonNull(userId, userMapper.toEntity(user)))
+    /**
+     * Updates a user, if the expected version is given the user is only updated if it still has that version.
+     */
+    public Mono<Void> updateUser(Long userId, UserRequestDto user, Long expectedVersion) {
+        return userRepository.updateNonNull(userId, userMapper.toEntity(user), expectedVersion)
+                .doFinally(signal -> userEntityCache.invalidate(userId))
+                .flatMap(count -> count > 0 || expectedVersion == null ? Mono.just(count)
+                        : userRepository.existsById(userId)
+                        .flatMap(exists -> exists
+                                ? Mono.error(new PreconditionFailedException("user has been modified"))
+                                : Mono.just(count)))
                 .doOnError(error -> LOGGER.error("Could not update user with userId=" + userId, error))
-                .flatMap(count -> count > 0 ? Mono.empty() : Mono.error(new EntityNotFoundException("could not update entity")));
+                .flatMap(count -> count > 0 ? Mono.empty() : Mono.error(new EntityNotFoundException("user entity does not exists")));
     }
 
     public Flux<UserResponseDto> listAllUsers() {
@@ -50,10 +72,22 @@ public class UserService {
                 .map(userMapper::toResponseDto);
     }
 
-    public Mono<UserInfoDto> getUserInfo(Long userId) {
-        return userRepository.findById(userId)
+    /**
+     * Streams all users, requesting at most {@code list-streaming.prefetch} rows
+     * ahead of the subscriber, so a slow client slows down reading the database cursor.
+     */
+    public Flux<UserResponseDto> streamAllUsers() {
+        return listAllUsers()
+                .limitRate(streamingPrefetch);
+    }
+
+    /**
+     * Returns the user info tagged with the version of the user, concurrent requests for the same user share one lookup.
+     */
+    public Mono<Versioned<UserInfoDto>> getUserInfo(Long userId) {
+        return userInfoFlights.execute(userId, () -> userEntityCache.findById(userId)
                 .doOnError(error -> LOGGER.error("Could not find user with userId=" + userId, error))
                 .switchIfEmpty(Mono.error(new EntityNotFoundException("user entity does not exists")))
-                .map(userMapper::toInfoDto);
+                .map(userEntity -> Versioned.of(() -> userMapper.toInfoDto(userEntity), userEntity.getVersion())));
     }
 }
@@ -0,0 +1,60 @@
+package com.acme.taskmanager.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A response body together with the entity tag derived from the version columns it was built from.
+ *
+ * The body is built lazily, so a conditional request answered with 304 Not Modified does not pay for mapping it.
+ *
+ * @param <T> the type of the body
+ */
+public final class Versioned<T> {
+    private static final String SEPARATOR = "-";
+
+    private final String eTag;
+    private final Supplier<T> body;
+
+    private Versioned(String eTag, Supplier<T> body) {
+        this.eTag = eTag;
+        this.body = body;
+    }
+
+    /**
+     * Creates a versioned body, the first version is the one of the entity which can be updated conditionally.
+     */
+    public static <T> Versioned<T> of(Supplier<T> body, Long... versions) {
+        return new Versioned<>(Arrays.stream(versions)
+                .map(version -> String.valueOf(Objects.requireNonNullElse(version, 0L)))
+                .collect(Collectors.joining(SEPARATOR, "\"", "\"")), body);
+    }
+
+    /**
+     * Parses the version expected by an If-Match header, returns {@code null} if any version is accepted.
+     */
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        var eTag = ifMatch.strip();
+        if (eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new IllegalArgumentException("invalid If-Match header");
+        }
+        try {
+            return Long.parseLong(eTag.substring(1, eTag.length() - 1).split(SEPARATOR)[0]);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("invalid If-Match header", exception);
+        }
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public T getBody() {
+        return body.get();
+    }
+}
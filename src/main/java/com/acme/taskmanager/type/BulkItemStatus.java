@@ -0,0 +1,10 @@
+package com.acme.taskmanager.type;
+
+/**
+ * Outcome of a single item of a bulk operation.
+ */
+public enum BulkItemStatus {
+    CREATED,
+    CONFLICT,
+    INVALID
+}
@@ -0,0 +1,12 @@
+package com.acme.taskmanager.type;
+
+/**
+ * Kind of change made to a task, or {@link #RESYNC} for changes made to any number of tasks of a user at once.
+ */
+public enum TaskChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    EXPIRED,
+    RESYNC
+}
@@ -0,0 +1,30 @@
+package com.acme.taskmanager.type;
+
+/**
+ * Column to sort tasks by, ties are ordered by id.
+ */
+public enum TaskSort {
+    ID("id"),
+    NAME("name"),
+    DATE_TIME("date_time"),
+    STATUS("status");
+
+    private final String column;
+
+    TaskSort(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static TaskSort fromColumn(String column) {
+        for (var sort : values()) {
+            if (sort.column.equals(column)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("invalid sort column " + column);
+    }
+}
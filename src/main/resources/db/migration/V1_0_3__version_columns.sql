@@ -0,0 +1,2 @@
+ALTER TABLE `user` ADD COLUMN IF NOT EXISTS `version` INT UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE `task` ADD COLUMN IF NOT EXISTS `version` INT UNSIGNED NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS `lease`
+(
+    `name`       VARCHAR(64) NOT NULL PRIMARY KEY,
+    `owner`      VARCHAR(64) NOT NULL,
+    `expires_at` DATETIME(3) NOT NULL
+) ENGINE = InnoDB
+  DEFAULT CHARSET = UTF8;
@@ -0,0 +1,3 @@
+-- Serves the status and date time filters of the tasks of a user. idx_user_id is kept although uq_name leads with
+-- user_id as well, because its implicit (user_id, id) order serves the keyset pagination of the tasks of a user.
+CREATE INDEX IF NOT EXISTS `idx_user_id_status_date_time` ON `task` (user_id, status, date_time);
@@ -0,0 +1,14 @@
+-- Number of tasks per user and status, maintained by the writes to the task table in the same transaction and
+-- reconciled periodically with the task table.
+CREATE TABLE IF NOT EXISTS `task_statistics`
+(
+    `user_id`    INT UNSIGNED NOT NULL,
+    `status`     VARCHAR(20) NOT NULL,
+    `task_count` INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status),
+    CONSTRAINT `fk_task_statistics_user` FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE
+) ENGINE = InnoDB
+  DEFAULT CHARSET = UTF8;
+
+INSERT INTO task_statistics (user_id, status, task_count)
+SELECT user_id, status, COUNT(*) FROM task GROUP BY user_id, status;
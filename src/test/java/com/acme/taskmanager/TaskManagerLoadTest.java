@@ -0,0 +1,303 @@
+package com.acme.taskmanager;
+
+import com.acme.taskmanager.dto.TaskResponseDto;
+import io.r2dbc.spi.Row;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Load test of the HTTP API, against the application running on an embedded database.
+ *
+ * Seeds a synthetic dataset, drives a mixed workload of CRUD and list requests with a fixed number of concurrent
+ * clients and reports the throughput and the p50/p99/p999 latencies per endpoint. Excluded from the default build,
+ * run it with {@code mvn -P load-test test} and tune it with system properties, e.g.
+ * {@code -Dload.users=1000 -Dload.tasks-per-user=50 -Dload.concurrency=64 -Dload.duration=60s}.
+ */
+@Tag("load")
+class TaskManagerLoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskManagerLoadTest.class);
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private static final int USERS = Integer.getInteger("load.users", 100);
+    private static final int TASKS_PER_USER = Integer.getInteger("load.tasks-per-user", 20);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("load.warmup", "5s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("load.duration", "20s"));
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Queue<long[]> createdTasks = new ConcurrentLinkedQueue<>();
+    private ConfigurableApplicationContext application;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private long[] userIds;
+    private long[][] seededTasks;
+
+    @BeforeEach
+    public void setup() {
+        var database = "load-" + UUID.randomUUID();
+        application = new SpringApplicationBuilder(TaskManagerApplication.class, QuotedIdentifiers.class)
+                .web(WebApplicationType.REACTIVE)
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=" + H2_OPTIONS,
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.flyway.url=jdbc:h2:mem:" + database + ";" + H2_OPTIONS,
+                        "--spring.flyway.user=sa",
+                        "--spring.flyway.password=",
+                        "--expired-task-scheduler.enabled=false");
+        var port = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+        connectionProvider = ConnectionProvider.builder("load-test").maxConnections(CONCURRENCY).build();
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port + "/api")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        seed(application.getBean(DatabaseClient.class));
+
+        endpoint("GET /user/{userId}", 10, () -> exchange(HttpMethod.GET, "/user/{userId}", null, randomUser()));
+        endpoint("PUT /user/{userId}", 5, () -> exchange(HttpMethod.PUT, "/user/{userId}",
+                Map.of("first_name", "first " + UUID.randomUUID()), randomUser()));
+        endpoint("GET /user/{userId}/task/{taskId}", 30, () -> {
+            var task = randomTask();
+            return exchange(HttpMethod.GET, "/user/{userId}/task/{taskId}", null, task[0], task[1]);
+        });
+        endpoint("PUT /user/{userId}/task/{taskId}", 15, () -> {
+            var task = randomTask();
+            return exchange(HttpMethod.PUT, "/user/{userId}/task/{taskId}",
+                    Map.of("description", "description " + UUID.randomUUID()), task[0], task[1]);
+        });
+        endpoint("GET /user/{userId}/task/page", 15, () -> exchange(HttpMethod.GET, "/user/{userId}/task/page?size=20",
+                null, randomUser()));
+        endpoint("GET /user/{userId}/task", 5, () -> exchange(HttpMethod.GET, "/user/{userId}/task", null, randomUser()));
+        endpoint("POST /user/{userId}/task", 12, () -> {
+            var userId = randomUser();
+            return webClient.post()
+                    .uri("/user/{userId}/task", userId)
+                    .bodyValue(Map.of("name", "task " + UUID.randomUUID(), "date_time", "2100-01-01 00:00:00"))
+                    .retrieve()
+                    .bodyToMono(TaskResponseDto.class)
+                    .doOnNext(task -> createdTasks.add(new long[]{userId, task.getId()}));
+        });
+        endpoint("DELETE /user/{userId}/task/{taskId}", 8, () -> Mono.defer(() -> {
+            var task = createdTasks.poll();
+            return task == null
+                    ? Mono.empty()
+                    : exchange(HttpMethod.DELETE, "/user/{userId}/task/{taskId}", null, task[0], task[1]);
+        }));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionProvider.dispose();
+        application.close();
+    }
+
+    @Test
+    void shouldSustainMixedWorkload() {
+        LOGGER.info("Warming up for {} with {} users, {} tasks per user and {} concurrent clients",
+                WARMUP, USERS, TASKS_PER_USER, CONCURRENCY);
+        run(WARMUP);
+        endpoints.values().forEach(Endpoint::reset);
+
+        var start = System.nanoTime();
+        run(DURATION);
+        var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        LOGGER.info("Load test results over {}:\n{}", DURATION, report(elapsedSeconds));
+
+        assertThat(endpoints.values().stream().mapToLong(endpoint -> endpoint.errors.get()).sum(), is(equalTo(0L)));
+        assertThat(endpoints.values().stream().mapToLong(endpoint -> endpoint.latencies.getTotalCount()).sum(),
+                is(greaterThan(0L)));
+    }
+
+    /**
+     * Runs closed-loop clients, each sending its next request as soon as the previous one completed.
+     */
+    private void run(Duration duration) {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var weighted = endpoints.values().stream()
+                .flatMap(endpoint -> IntStream.range(0, endpoint.weight).mapToObj(i -> endpoint))
+                .collect(Collectors.toList());
+        Flux.range(0, CONCURRENCY)
+                .flatMap(client -> Mono.defer(() -> weighted.get(ThreadLocalRandom.current().nextInt(weighted.size())).call())
+                        .repeat(() -> System.nanoTime() < deadline), CONCURRENCY)
+                .blockLast(duration.plusMinutes(1));
+    }
+
+    private void endpoint(String name, int weight, Supplier<Mono<?>> request) {
+        endpoints.put(name, new Endpoint(name, weight, request));
+    }
+
+    private Mono<?> exchange(HttpMethod method, String uri, Object body, Object... uriVariables) {
+        var spec = webClient.method(method).uri(uri, uriVariables).accept(MediaType.APPLICATION_JSON);
+        return (body != null ? spec.bodyValue(body) : spec)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private long randomUser() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    private long[] randomTask() {
+        return seededTasks[ThreadLocalRandom.current().nextInt(seededTasks.length)];
+    }
+
+    /**
+     * Seeds the users and their tasks with multi-row INSERTs, the tasks are due in the future so none expires.
+     */
+    private void seed(DatabaseClient databaseClient) {
+        var start = System.nanoTime();
+        Flux.range(0, (USERS + SEED_BATCH_SIZE - 1) / SEED_BATCH_SIZE)
+                .concatMap(batch -> databaseClient.sql("INSERT INTO user (username, first_name, last_name) VALUES "
+                        + IntStream.range(batch * SEED_BATCH_SIZE, Math.min(USERS, (batch + 1) * SEED_BATCH_SIZE))
+                        .mapToObj(i -> "('user" + i + "', 'first" + i + "', 'last" + i + "')")
+                        .collect(Collectors.joining(", "))).then())
+                .blockLast();
+        userIds = databaseClient.sql("SELECT id FROM user")
+                .map((row, metadata) -> longValue(row, "id"))
+                .all()
+                .collectList()
+                .block()
+                .stream().mapToLong(Long::longValue).toArray();
+        var rows = new ArrayList<String>();
+        for (var userId : userIds) {
+            for (int i = 0; i < TASKS_PER_USER; i++) {
+                rows.add("(" + userId + ", 'task" + i + "', 'description" + i + "', TIMESTAMP '2100-01-01 00:00:00')");
+            }
+        }
+        Flux.range(0, (rows.size() + SEED_BATCH_SIZE - 1) / SEED_BATCH_SIZE)
+                .concatMap(batch -> databaseClient.sql("INSERT INTO task (user_id, name, description, date_time) VALUES "
+                        + String.join(", ", rows.subList(batch * SEED_BATCH_SIZE,
+                        Math.min(rows.size(), (batch + 1) * SEED_BATCH_SIZE)))).then())
+                .blockLast();
+        seededTasks = databaseClient.sql("SELECT user_id, id FROM task")
+                .map((row, metadata) -> new long[]{longValue(row, "user_id"), longValue(row, "id")})
+                .all()
+                .collectList()
+                .block()
+                .toArray(new long[0][]);
+        LOGGER.info("Seeded {} users and {} tasks in {} ms", userIds.length, seededTasks.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static long longValue(Row row, String column) {
+        return ((Number) row.get(column)).longValue();
+    }
+
+    private String report(double elapsedSeconds) {
+        var lines = new ArrayList<String>();
+        lines.add(String.format("%-36s %9s %7s %10s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        var total = new Histogram(3);
+        var errors = 0L;
+        for (var endpoint : endpoints.values()) {
+            lines.add(format(endpoint.name, endpoint.latencies, endpoint.errors.get(), elapsedSeconds));
+            total.add(endpoint.latencies);
+            errors += endpoint.errors.get();
+        }
+        lines.add(format("total", total, errors, elapsedSeconds));
+        return String.join("\n", lines);
+    }
+
+    private static String format(String name, Histogram latencies, long errors, double elapsedSeconds) {
+        return String.format("%-36s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f", name, latencies.getTotalCount(), errors,
+                latencies.getTotalCount() / elapsedSeconds, millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Quotes the identifiers of mapped queries, as the embedded database does not accept the unquoted {@code user} table.
+     */
+    static class QuotedIdentifiers {
+        @Bean
+        public R2dbcMappingContext r2dbcMappingContext(R2dbcCustomConversions r2dbcCustomConversions) {
+            var mappingContext = new R2dbcMappingContext();
+            mappingContext.setSimpleTypeHolder(r2dbcCustomConversions.getSimpleTypeHolder());
+            mappingContext.setForceQuote(true);
+            return mappingContext;
+        }
+    }
+
+    /**
+     * Latencies in nanoseconds and error count of the requests to one endpoint,
+     * requests completing empty (nothing to do) are not recorded.
+     */
+    private static class Endpoint {
+        private final String name;
+        private final int weight;
+        private final Supplier<Mono<?>> request;
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+
+        private Endpoint(String name, int weight, Supplier<Mono<?>> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        private Mono<?> call() {
+            return Mono.defer(() -> {
+                var start = System.nanoTime();
+                return request.get()
+                        .doOnNext(ignored -> latencies.recordValue(System.nanoTime() - start))
+                        .onErrorResume(error -> {
+                            errors.incrementAndGet();
+                            LOGGER.warn("{} failed: {}", name, error.toString());
+                            return Mono.empty();
+                        });
+            });
+        }
+
+        private void reset() {
+            latencies.reset();
+            errors.set(0);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.acme.taskmanager.cache;
+
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.repository.UserLoader;
+import com.acme.taskmanager.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link UserEntityCache}.
+ */
+class UserEntityCacheTest {
+    private static final Long USER_ID = 1L;
+    private static final Long UNKNOWN_USER_ID = 2L;
+    private static final UserEntity USER_ENTITY = new UserEntity(USER_ID, "homer", "Homer", "Simpson", 0L);
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserLoader userLoader;
+    private UserEntityCache userEntityCache;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userLoader = new UserLoader(userRepository, meterRegistry, false, 100);
+        userEntityCache = new UserEntityCache(userRepository, userLoader, meterRegistry, true, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        when(userRepository.findById(USER_ID)).thenReturn(Mono.just(USER_ENTITY));
+        when(userRepository.findById(UNKNOWN_USER_ID)).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void shouldLoadUserOnlyOnce() {
+        StepVerifier.create(userEntityCache.findById(USER_ID)).expectNext(USER_ENTITY).verifyComplete();
+        StepVerifier.create(userEntityCache.existsById(USER_ID)).expectNext(true).verifyComplete();
+
+        verify(userRepository).findById(USER_ID);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void shouldCacheUnknownUser() {
+        StepVerifier.create(userEntityCache.existsById(UNKNOWN_USER_ID)).expectNext(false).verifyComplete();
+        StepVerifier.create(userEntityCache.findById(UNKNOWN_USER_ID)).verifyComplete();
+
+        verify(userRepository).findById(UNKNOWN_USER_ID);
+    }
+
+    @Test
+    void shouldReloadUserAfterInvalidation() {
+        StepVerifier.create(userEntityCache.findById(USER_ID)).expectNext(USER_ENTITY).verifyComplete();
+        userEntityCache.invalidate(USER_ID);
+        StepVerifier.create(userEntityCache.findById(USER_ID)).expectNext(USER_ENTITY).verifyComplete();
+
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void shouldNotCacheFailedLookup() {
+        when(userRepository.findById(USER_ID))
+                .thenReturn(Mono.error(new IllegalStateException("intentionally thrown for testing purposes")))
+                .thenReturn(Mono.just(USER_ENTITY));
+
+        StepVerifier.create(userEntityCache.findById(USER_ID)).verifyError(IllegalStateException.class);
+        StepVerifier.create(userEntityCache.findById(USER_ID)).expectNext(USER_ENTITY).verifyComplete();
+    }
+
+    @Test
+    void shouldDelegateWhenDisabled() {
+        var disabledCache = new UserEntityCache(userRepository, userLoader, meterRegistry, false, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(disabledCache.existsById(USER_ID)).expectNext(true).verifyComplete();
+        StepVerifier.create(disabledCache.existsById(USER_ID)).expectNext(true).verifyComplete();
+
+        verify(userRepository, times(2)).existsById(USER_ID);
+    }
+}
@@ -0,0 +1,98 @@
+package com.acme.taskmanager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit test for {@link ConnectionPoolConfig}, pooling connections of an embedded database.
+ */
+class ConnectionPoolConfigTest {
+    private final ConnectionPoolConfig connectionPoolConfig = new ConnectionPoolConfig();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionPool connectionPool;
+    private TimedConnectionFactory connectionFactory;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        var beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        ConnectionFactories.get("r2dbc:h2:mem://sa@/pool-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1"))
+                .initialSize(2)
+                .maxSize(3)
+                .maxAcquireTime(Duration.ofMillis(200))
+                .build());
+        connectionFactory = (TimedConnectionFactory) ConnectionPoolConfig
+                .timedConnectionPoolPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class))
+                .postProcessAfterInitialization(connectionPool, "connectionFactory");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionFactory.dispose();
+    }
+
+    @Test
+    void shouldUnwrapPool() {
+        assertThat(ConnectionPoolConfig.unwrapPool(connectionFactory), is(sameInstance(connectionPool)));
+        assertThat(ConnectionPoolConfig.unwrapPool(connectionPool), is(sameInstance(connectionPool)));
+    }
+
+    @Test
+    void shouldWarmUpPoolToInitialSize() throws Exception {
+        connectionPoolConfig.connectionPoolWarmUp(connectionFactory, Duration.ofSeconds(5)).run(null);
+
+        var metrics = connectionPool.getMetrics().orElseThrow();
+        assertThat(metrics.allocatedSize(), is(equalTo(2)));
+        assertThat(metrics.idleSize(), is(equalTo(2)));
+    }
+
+    @Test
+    void shouldTimeAcquiredConnections() {
+        StepVerifier.create(Mono.usingWhen(connectionFactory.create(), Mono::just, Connection::close))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(timer("success").count(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldTimeFailedAcquisitionOfSaturatedPool() {
+        var connections = Flux.range(0, 3).flatMap(index -> connectionFactory.create()).collectList().block();
+
+        StepVerifier.create(connectionFactory.create()).verifyError();
+
+        assertThat(timer("success").count(), is(equalTo(3L)));
+        assertThat(timer("error").count(), is(equalTo(1L)));
+        Flux.fromIterable(connections).flatMap(Connection::close).blockLast();
+    }
+
+    private Timer timer(String outcome) {
+        return meterRegistry.get(TimedConnectionFactory.TIMER)
+                .tag("name", "connectionFactory")
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
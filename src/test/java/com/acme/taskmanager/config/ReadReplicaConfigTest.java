@@ -0,0 +1,64 @@
+package com.acme.taskmanager.config;
+
+import com.acme.taskmanager.TaskManagerApplication;
+import com.acme.taskmanager.repository.ReadReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test for {@link ReadReplicaConfig}, wiring an embedded database as replica of another one.
+ */
+class ReadReplicaConfigTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    public void setup() {
+        context = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.r2dbc.url=r2dbc:h2:mem:///primary-" + UUID.randomUUID() + "?options=" + H2_OPTIONS,
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--read-replica.enabled=true",
+                        "--read-replica.url=r2dbc:h2:mem:///replica-" + UUID.randomUUID() + "?options=" + H2_OPTIONS,
+                        "--read-replica.username=sa",
+                        "--read-replica.password=");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void shouldRouteTimedPools() {
+        var connectionFactory = context.getBean(ConnectionFactory.class);
+        assertThat(connectionFactory, is(instanceOf(ReadReplicaRoutingConnectionFactory.class)));
+        assertThat(context.getBean(DatabaseClient.class).getConnectionFactory(), is(sameInstance(connectionFactory)));
+
+        var routing = (ReadReplicaRoutingConnectionFactory) connectionFactory;
+        assertThat(routing.unwrap(), is(instanceOf(TimedConnectionFactory.class)));
+        assertThat(routing.getReplica(), is(instanceOf(TimedConnectionFactory.class)));
+        assertThat(ConnectionPoolConfig.unwrapPool(routing), is(instanceOf(ConnectionPool.class)));
+        assertThat(context.getBean(MeterRegistry.class).find("r2dbc.pool.max.allocated")
+                .tag("name", ReadReplicaConfig.REPLICA_NAME).gauge(), is(notNullValue()));
+    }
+}
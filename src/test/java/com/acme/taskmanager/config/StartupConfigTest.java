@@ -0,0 +1,37 @@
+package com.acme.taskmanager.config;
+
+import com.acme.taskmanager.controller.TaskController;
+import com.acme.taskmanager.expiry.TaskExpiryEngine;
+import com.acme.taskmanager.mapper.TaskMapperImpl;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test for {@link StartupConfig}.
+ */
+class StartupConfigTest {
+    private final LazyInitializationExcludeFilter filter = StartupConfig.criticalBeansExcludeFilter();
+
+    @Test
+    void shouldInitializeCriticalBeansEagerly() {
+        assertThat(isExcluded(TaskController.class), is(true));
+        assertThat(isExcluded(ConnectionPool.class), is(true));
+        assertThat(isExcluded(ExpiredTasksSchedulerConfig.class), is(true));
+        assertThat(isExcluded(TaskExpiryEngine.class), is(true));
+    }
+
+    @Test
+    void shouldInitializeOtherBeansLazily() {
+        assertThat(isExcluded(TaskMapperImpl.class), is(false));
+        assertThat(isExcluded(ConnectionPoolConfig.class), is(false));
+    }
+
+    private boolean isExcluded(Class<?> beanType) {
+        return filter.isExcluded("bean", new RootBeanDefinition(beanType), beanType);
+    }
+}
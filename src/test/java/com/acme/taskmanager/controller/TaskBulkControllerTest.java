@@ -0,0 +1,272 @@
+package com.acme.taskmanager.controller;
+
+import com.acme.taskmanager.dto.ErrorResponseDto;
+import com.acme.taskmanager.dto.TaskBulkCountDto;
+import com.acme.taskmanager.dto.TaskBulkRequestDto;
+import com.acme.taskmanager.dto.TaskBulkResultDto;
+import com.acme.taskmanager.dto.TaskFilterDto;
+import com.acme.taskmanager.dto.TaskRequestDto;
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.exception.ResponseEntityExceptionMapper;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.repository.UserRepository;
+import com.acme.taskmanager.service.TaskBulkService;
+import com.acme.taskmanager.service.TaskChangeFeed;
+import com.acme.taskmanager.type.BulkItemStatus;
+import com.acme.taskmanager.type.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link TaskBulkController}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TaskBulkControllerTest {
+    private static final Long USER_ID = 1L;
+    private static final Long TASK_ID = 2L;
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+    private static final TaskStatus STATUS = TaskStatus.PENDING;
+    private static final String TASK_NAME = "donut";
+    private static final String EXISTING_TASK_NAME = "beer";
+    private static final String DESCRIPTION = "buy donuts";
+    private static final TaskRequestDto VALID_TASK_REQUEST = new TaskRequestDto(TASK_NAME, DESCRIPTION, DATE_TIME, STATUS);
+    private static final TaskRequestDto INVALID_TASK_REQUEST = new TaskRequestDto(null, DESCRIPTION, DATE_TIME, STATUS);
+    private static final TaskRequestDto EXISTING_TASK_REQUEST = new TaskRequestDto(EXISTING_TASK_NAME, DESCRIPTION, DATE_TIME, STATUS);
+    private static final TaskEntity TASK_ENTITY = new TaskEntity.Builder()
+            .setId(TASK_ID)
+            .setName(TASK_NAME)
+            .setDescription(DESCRIPTION)
+            .setUserId(USER_ID)
+            .setDateTime(DATE_TIME)
+            .setStatus(STATUS)
+            .build();
+
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    public void setup() {
+        webTestClient = WebTestClient.bindToController(new TaskBulkController(taskBulkService))
+                .controllerAdvice(ResponseEntityExceptionMapper.class)
+                .build();
+    }
+
+    @Test
+    void shouldReportResultPerItem() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findNamesByUserIdAndNameIn(eq(USER_ID), anyCollection())).thenReturn(Flux.just(EXISTING_TASK_NAME));
+        when(taskRepository.saveAll(eq(USER_ID), anyList())).thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk", USER_ID)
+                .bodyValue(Arrays.asList(VALID_TASK_REQUEST, INVALID_TASK_REQUEST, EXISTING_TASK_REQUEST, VALID_TASK_REQUEST))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskBulkResultDto.class)
+                .value(contains(
+                        allOf(hasProperty("index", is(equalTo(0))),
+                                hasProperty("id", is(equalTo(TASK_ID))),
+                                hasProperty("status", is(equalTo(BulkItemStatus.CREATED)))),
+                        allOf(hasProperty("index", is(equalTo(1))),
+                                hasProperty("status", is(equalTo(BulkItemStatus.INVALID))),
+                                hasProperty("message", is(equalTo("name: must not be null")))),
+                        allOf(hasProperty("index", is(equalTo(2))),
+                                hasProperty("status", is(equalTo(BulkItemStatus.CONFLICT)))),
+                        allOf(hasProperty("index", is(equalTo(3))),
+                                hasProperty("status", is(equalTo(BulkItemStatus.CONFLICT))))
+                ));
+
+        verify(userRepository).existsById(USER_ID);
+        verify(taskRepository).saveAll(eq(USER_ID), anyList());
+    }
+
+    @Test
+    void shouldFallBackToSingleInsertsOnConflict() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findNamesByUserIdAndNameIn(eq(USER_ID), anyCollection())).thenReturn(Flux.empty());
+        when(taskRepository.saveAll(eq(USER_ID), anyList()))
+                .thenReturn(Flux.error(new DataIntegrityViolationException("intentionally thrown for testing purposes")));
+        when(taskRepository.save(any(TaskEntity.class)))
+                .thenReturn(Mono.just(TASK_ENTITY))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("intentionally thrown for testing purposes")));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk", USER_ID)
+                .bodyValue(List.of(VALID_TASK_REQUEST, EXISTING_TASK_REQUEST))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskBulkResultDto.class)
+                .value(contains(
+                        hasProperty("status", is(equalTo(BulkItemStatus.CREATED))),
+                        hasProperty("status", is(equalTo(BulkItemStatus.CONFLICT)))
+                ));
+    }
+
+    @Test
+    void shouldNotCreateTasksForNonExistingUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk", USER_ID)
+                .bodyValue(List.of(VALID_TASK_REQUEST))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).saveAll(anyLong(), anyList());
+    }
+
+    @Test
+    void shouldUpdateStatusOfTasksById() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.updateStatusByUserIdAndIdIn(USER_ID, List.of(TASK_ID, TASK_ID + 1), TaskStatus.DONE))
+                .thenReturn(Mono.just(2));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/status", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(List.of(TASK_ID, TASK_ID + 1), null, TaskStatus.DONE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkCountDto.class)
+                .value(hasProperty("affected", is(equalTo(2))));
+    }
+
+    @Test
+    void shouldUpdateStatusOfFilteredTasksUntilDrained() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.updateStatusByUserIdAndFilter(eq(USER_ID), eq(TaskStatus.PENDING), any(), any(),
+                eq(TaskStatus.DONE), anyInt()))
+                .thenReturn(Mono.just(500))
+                .thenReturn(Mono.just(3));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/status", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(null, new TaskFilterDto(TaskStatus.PENDING, null, DATE_TIME), TaskStatus.DONE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkCountDto.class)
+                .value(hasProperty("affected", is(equalTo(503))));
+
+        verify(taskRepository, times(2)).updateStatusByUserIdAndFilter(eq(USER_ID), eq(TaskStatus.PENDING), any(), any(),
+                eq(TaskStatus.DONE), anyInt());
+    }
+
+    @Test
+    void shouldDeleteFilteredTasks() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.deleteByUserIdAndFilter(eq(USER_ID), eq(TaskStatus.DONE), any(), any(), anyInt()))
+                .thenReturn(Mono.just(7));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/delete", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(null, new TaskFilterDto(TaskStatus.DONE, null, null), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskBulkCountDto.class)
+                .value(hasProperty("affected", is(equalTo(7))));
+    }
+
+    @Test
+    void shouldNotUpdateStatusOfTasksOfNonExistingUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/status", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(List.of(TASK_ID), null, TaskStatus.DONE))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).updateStatusByUserIdAndIdIn(anyLong(), anyList(), any());
+    }
+
+    @Test
+    void shouldNotDeleteTasksOfNonExistingUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/delete", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(null, new TaskFilterDto(TaskStatus.DONE, null, null), null))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).deleteByUserIdAndFilter(anyLong(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldResyncTaskFeedAfterDeletingTasks() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.deleteByUserIdAndIdIn(eq(USER_ID), anyList())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(taskChangeFeed.subscribe(USER_ID))
+                .assertNext(event -> assertThat(event.comment(), is(equalTo("heartbeat"))))
+                .then(() -> webTestClient.post()
+                        .uri("/api/user/{userId}/task/bulk/delete", USER_ID)
+                        .bodyValue(new TaskBulkRequestDto(List.of(TASK_ID), null, null))
+                        .exchange()
+                        .expectStatus().isOk())
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo("RESYNC")));
+                    assertThat(event.data(), is(nullValue()));
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldNotDeleteTasksWithoutSelection() {
+        webTestClient.post()
+                .uri("/api/user/{userId}/task/bulk/delete", USER_ID)
+                .bodyValue(new TaskBulkRequestDto(null, null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).deleteByUserIdAndIdIn(anyLong(), anyList());
+    }
+}
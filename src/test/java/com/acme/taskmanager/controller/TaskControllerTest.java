@@ -1,38 +1,64 @@
 package com.acme.taskmanager.controller;
 
 import com.acme.taskmanager.dto.ErrorResponseDto;
+import com.acme.taskmanager.dto.TaskChangeDto;
 import com.acme.taskmanager.dto.TaskInfoDto;
+import com.acme.taskmanager.dto.TaskPageDto;
 import com.acme.taskmanager.dto.TaskRequestDto;
 import com.acme.taskmanager.dto.TaskResponseDto;
+import com.acme.taskmanager.dto.TaskStatisticsDto;
 import com.acme.taskmanager.entity.TaskEntity;
 import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.exception.EntityNotFoundException;
 import com.acme.taskmanager.exception.ResponseEntityExceptionMapper;
 import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.repository.TaskStatisticsRepository;
 import com.acme.taskmanager.repository.UserRepository;
+import com.acme.taskmanager.service.TaskChangeFeed;
 import com.acme.taskmanager.service.TaskService;
+import com.acme.taskmanager.service.TaskStatisticsService;
+import com.acme.taskmanager.type.TaskSort;
 import com.acme.taskmanager.type.TaskStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -56,7 +82,7 @@ class TaskControllerTest {
     private static final String DESCRIPTION = "buy donuts";
     private static final TaskRequestDto VALID_TASK_REQUEST = new TaskRequestDto(TASK_NAME, DESCRIPTION, DATE_TIME, STATUS);
     private static final TaskRequestDto INVALID_TASK_REQUEST = new TaskRequestDto(INVALID_TASK_NAME, DESCRIPTION, DATE_TIME, STATUS);
-    private static final UserEntity USER_ENTITY = new UserEntity(USER_ID, USERNAME, FIRST_NAME, LAST_NAME);
+    private static final UserEntity USER_ENTITY = new UserEntity(USER_ID, USERNAME, FIRST_NAME, LAST_NAME, 3L);
     private static final TaskEntity TASK_ENTITY = new TaskEntity.Builder()
             .setId(TASK_ID)
             .setName(TASK_NAME)
@@ -64,6 +90,7 @@ class TaskControllerTest {
             .setUserId(USER_ID)
             .setDateTime(DATE_TIME)
             .setStatus(STATUS)
+            .setVersion(5L)
             .build();
 
     private WebTestClient webTestClient;
@@ -71,15 +98,24 @@ class TaskControllerTest {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
     @MockBean
     private UserRepository userRepository;
 
     @MockBean
     private TaskRepository taskRepository;
 
+    @MockBean
+    private TaskStatisticsRepository taskStatisticsRepository;
+
     @BeforeEach
     public void setup() {
-        webTestClient = WebTestClient.bindToController(new TaskController(taskService))
+        webTestClient = WebTestClient.bindToController(new TaskController(taskService, taskStatisticsService, taskChangeFeed))
                 .controllerAdvice(ResponseEntityExceptionMapper.class)
                 .build();
     }
@@ -103,6 +139,73 @@ class TaskControllerTest {
         verify(taskRepository).save(isA(TaskEntity.class));
     }
 
+    @Test
+    void shouldGetTaskStatistics() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskStatisticsRepository.findCountsByUserId(USER_ID)).thenReturn(Mono.just(Map.of(TaskStatus.PENDING, 3L)));
+        when(taskRepository.countPendingByUserIdBeforeDateTime(eq(USER_ID), any(LocalDateTime.class))).thenReturn(Mono.just(2L));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/statistics", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskStatisticsDto.class)
+                .value(allOf(
+                        hasProperty("total", is(equalTo(3L))),
+                        hasProperty("byStatus", is(equalTo(Map.of(TaskStatus.PENDING, 3L, TaskStatus.DONE, 0L)))),
+                        hasProperty("overdue", is(equalTo(2L)))
+                ));
+    }
+
+    @Test
+    void shouldNotGetTaskStatisticsForUnknownUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/statistics", USER_ID)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        verify(taskStatisticsRepository, never()).findCountsByUserId(anyLong());
+    }
+
+    @Test
+    void shouldStreamTaskChanges() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.save(any(TaskEntity.class))).thenReturn(Mono.just(TASK_ENTITY));
+
+        var changes = webTestClient.get()
+                .uri("/api/user/{userId}/task/changes", USER_ID)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<TaskChangeDto>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .assertNext(event -> assertThat(event.comment(), is(equalTo("heartbeat"))))
+                .then(() -> taskService.createTask(USER_ID, VALID_TASK_REQUEST).block())
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo("CREATED")));
+                    assertThat(event.data().getId(), is(equalTo(TASK_ID)));
+                    assertThat(event.data().getName(), is(equalTo(TASK_NAME)));
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldNotStreamTaskChangesForUnknownUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/changes", USER_ID)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
     @Test
     void shouldNotCreateTaskForInvalidRequest() {
         webTestClient.post()
@@ -144,8 +247,7 @@ class TaskControllerTest {
 
     @Test
     void shouldUpdateTaskForValidRequest() {
-        when(taskRepository.existsByIdAndUserId(USER_ID, TASK_ID)).thenReturn(Mono.just(true));
-        when(taskRepository.updateNonNull(eq(TASK_ID), isA(TaskEntity.class))).thenReturn(Mono.just(1));
+        when(taskRepository.updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), isNull())).thenReturn(Mono.just(1));
 
         webTestClient.put()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
@@ -154,27 +256,70 @@ class TaskControllerTest {
                 .expectStatus().isNoContent()
                 .expectBody(Void.class);
 
-        verify(taskRepository).updateNonNull(eq(TASK_ID), isA(TaskEntity.class));
+        verify(taskRepository).updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), isNull());
+        verify(taskRepository, never()).existsByIdAndUserId(anyLong(), anyLong());
     }
 
     @Test
     void shouldNotUpdateTaskForNonExistingEntity() {
-        when(taskRepository.existsByIdAndUserId(USER_ID, TASK_ID)).thenReturn(Mono.just(false));
+        when(taskRepository.updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), isNull())).thenReturn(Mono.just(0));
 
         webTestClient.put()
-                .uri("/api/user/{userId}", USER_ID)
+                .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
                 .bodyValue(VALID_TASK_REQUEST)
                 .exchange()
                 .expectStatus().isNotFound()
                 .expectBody(ErrorResponseDto.class);
 
-        verify(taskRepository, never()).updateNonNull(anyLong(), isA(TaskEntity.class));
+        verify(taskRepository, never()).existsByIdAndUserId(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldUpdateTaskWithMatchingVersion() {
+        when(taskRepository.updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), eq(5L))).thenReturn(Mono.just(1));
+
+        webTestClient.put()
+                .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
+                .header(HttpHeaders.IF_MATCH, "\"5-3\"")
+                .bodyValue(VALID_TASK_REQUEST)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectBody(Void.class);
+
+        verify(taskRepository, never()).existsByIdAndUserId(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldNotUpdateTaskForOutdatedVersion() {
+        when(taskRepository.updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), eq(4L))).thenReturn(Mono.just(0));
+        when(taskRepository.existsByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.just(true));
+
+        webTestClient.put()
+                .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
+                .header(HttpHeaders.IF_MATCH, "\"4-3\"")
+                .bodyValue(VALID_TASK_REQUEST)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody(ErrorResponseDto.class);
+    }
+
+    @Test
+    void shouldNotUpdateNonExistingTaskWithVersion() {
+        when(taskRepository.updateNonNullByIdAndUserId(eq(TASK_ID), eq(USER_ID), isA(TaskEntity.class), eq(4L))).thenReturn(Mono.just(0));
+        when(taskRepository.existsByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.put()
+                .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
+                .header(HttpHeaders.IF_MATCH, "\"4-3\"")
+                .bodyValue(VALID_TASK_REQUEST)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(ErrorResponseDto.class);
     }
 
     @Test
     void shouldDeleteExistingTask() {
-        when(taskRepository.deleteById(TASK_ID)).thenReturn(Mono.empty());
-        when(taskRepository.existsByIdAndUserId(USER_ID, TASK_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.deleteByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.empty());
 
         webTestClient.delete()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
@@ -182,13 +327,14 @@ class TaskControllerTest {
                 .expectStatus().isNoContent()
                 .expectBody(Void.class);
 
-        verify(taskRepository).deleteById(TASK_ID);
+        verify(taskRepository).deleteByIdAndUserId(TASK_ID, USER_ID);
+        verify(taskRepository, never()).existsByIdAndUserId(anyLong(), anyLong());
     }
 
     @Test
     void shouldNotDeleteNotExistingTask() {
-        when(taskRepository.deleteById(TASK_ID)).thenReturn(Mono.empty());
-        when(taskRepository.existsByIdAndUserId(USER_ID, TASK_ID)).thenReturn(Mono.just(false));
+        when(taskRepository.deleteByIdAndUserId(TASK_ID, USER_ID))
+                .thenReturn(Mono.error(new EntityNotFoundException("intentionally thrown for testing purposes")));
 
         webTestClient.delete()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
@@ -201,13 +347,13 @@ class TaskControllerTest {
 
     @Test
     void shouldGetTaskInfo() {
-        when(userRepository.findById(USER_ID)).thenReturn(Mono.just(USER_ENTITY));
-        when(taskRepository.findByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.just(TASK_ENTITY));
+        when(taskRepository.findWithUserByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.just(Tuples.of(TASK_ENTITY, USER_ENTITY)));
 
         webTestClient.get()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"5-3\"")
                 .expectBody(TaskInfoDto.class)
                 .value(allOf(
                         hasProperty("id", is(equalTo(TASK_ID))),
@@ -222,28 +368,26 @@ class TaskControllerTest {
                                 hasProperty("lastName", is(equalTo(LAST_NAME)))
                         ))));
 
-        verify(userRepository).findById(USER_ID);
-        verify(taskRepository).findByIdAndUserId(TASK_ID, USER_ID);
+        verify(taskRepository).findWithUserByIdAndUserId(TASK_ID, USER_ID);
+        verify(userRepository, never()).findById(USER_ID);
     }
 
     @Test
-    void shouldNotGetTaskInfoForNonExistingUser() {
-        when(userRepository.findById(USER_ID)).thenReturn(Mono.empty());
+    void shouldNotReturnUnmodifiedTaskInfo() {
+        when(taskRepository.findWithUserByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.just(Tuples.of(TASK_ENTITY, USER_ENTITY)));
 
         webTestClient.get()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"5-3\"")
                 .exchange()
-                .expectStatus().isNotFound()
-                .expectBody(ErrorResponseDto.class);
-
-        verify(userRepository).findById(USER_ID);
-        verify(taskRepository, never()).findByIdAndUserId(TASK_ID, USER_ID);
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"5-3\"")
+                .expectBody().isEmpty();
     }
 
     @Test
-    void shouldNotGetTaskInfoForNonExistingTask() {
-        when(userRepository.findById(USER_ID)).thenReturn(Mono.just(USER_ENTITY));
-        when(taskRepository.findByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.empty());
+    void shouldNotGetTaskInfoForNonExistingUserOrTask() {
+        when(taskRepository.findWithUserByIdAndUserId(TASK_ID, USER_ID)).thenReturn(Mono.empty());
 
         webTestClient.get()
                 .uri("/api/user/{userId}/task/{taskId}", USER_ID, TASK_ID)
@@ -251,8 +395,7 @@ class TaskControllerTest {
                 .expectStatus().isNotFound()
                 .expectBody(ErrorResponseDto.class);
 
-        verify(userRepository).findById(USER_ID);
-        verify(taskRepository).findByIdAndUserId(TASK_ID, USER_ID);
+        verify(taskRepository).findWithUserByIdAndUserId(TASK_ID, USER_ID);
     }
 
     @Test
@@ -303,4 +446,213 @@ class TaskControllerTest {
         verify(userRepository).existsById(USER_ID);
         verify(taskRepository, never()).findAllByUserId(USER_ID);
     }
+
+    @Test
+    void shouldListFilteredAndSortedTasks() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAndFilter(USER_ID, STATUS, DATE_TIME, null, TaskSort.DATE_TIME, true))
+                .thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task?status=PENDING&date_time_from=2022-01-30T10:20:30&sort=-date_time", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskResponseDto.class)
+                .value(hasItems(hasProperty("id", is(equalTo(TASK_ID)))));
+
+        verify(taskRepository).findAllByUserIdAndFilter(USER_ID, STATUS, DATE_TIME, null, TaskSort.DATE_TIME, true);
+        verify(taskRepository, never()).findAllByUserId(USER_ID);
+    }
+
+    @Test
+    void shouldListFilteredTasksWithoutSort() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAndFilter(USER_ID, STATUS, null, null, TaskSort.ID, false))
+                .thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task?status=PENDING", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskResponseDto.class)
+                .value(hasItems(hasProperty("id", is(equalTo(TASK_ID)))));
+
+        verify(taskRepository).findAllByUserIdAndFilter(USER_ID, STATUS, null, null, TaskSort.ID, false);
+    }
+
+    @Test
+    void shouldStreamFilteredTasksWithoutSortAsNdjson() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAndFilter(USER_ID, STATUS, null, null, TaskSort.ID, false))
+                .thenReturn(Flux.just(TASK_ENTITY));
+
+        var result = webTestClient.get()
+                .uri("/api/user/{userId}/task?status=PENDING", USER_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TaskResponseDto.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNextMatches(task -> TASK_ID.equals(task.getId()))
+                .verifyComplete();
+        verify(taskRepository).findAllByUserIdAndFilter(USER_ID, STATUS, null, null, TaskSort.ID, false);
+    }
+
+    @Test
+    void shouldNotListTasksForInvalidFilterOrSort() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+
+        for (var query : List.of("status=STARTED", "date_time_from=yesterday", "sort=description",
+                "date_time_from=2022-01-30T10:20:30&date_time_to=2022-01-29T10:20:30")) {
+            webTestClient.get()
+                    .uri("/api/user/{userId}/task?" + query, USER_ID)
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody(ErrorResponseDto.class);
+        }
+
+        verify(taskRepository, never()).findAllByUserIdAndFilter(anyLong(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void shouldReturnFilteredPage() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAndFilterAfterId(USER_ID, TaskStatus.DONE, null, DATE_TIME, 0L, 2))
+                .thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/page?size=1&status=DONE&date_time_to=2022-01-30T10:20:30", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskPageDto.class)
+                .value(allOf(
+                        hasProperty("tasks", hasSize(1)),
+                        hasProperty("nextCursor", is(nullValue()))
+                ));
+
+        verify(taskRepository, never()).findAllByUserIdAfterId(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldStreamAllTasksAsServerSentEvents() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserId(USER_ID)).thenReturn(Flux.just(TASK_ENTITY));
+
+        var result = webTestClient.get()
+                .uri("/api/user/{userId}/task", USER_ID)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(TaskResponseDto.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNextMatches(task -> TASK_ID.equals(task.getId()) && TASK_NAME.equals(task.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnFirstPageWithNextCursor() {
+        var nextTask = new TaskEntity.Builder().setId(TASK_ID + 1).setName(TASK_NAME + 1).setUserId(USER_ID).build();
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAfterId(USER_ID, 0L, 2)).thenReturn(Flux.just(TASK_ENTITY, nextTask));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/page?size=1", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskPageDto.class)
+                .value(allOf(
+                        hasProperty("tasks", hasSize(1)),
+                        hasProperty("nextCursor", is(notNullValue()))
+                ));
+
+        verify(taskRepository).findAllByUserIdAfterId(USER_ID, 0L, 2);
+    }
+
+    @Test
+    void shouldContinueFromCursorAndReturnLastPage() {
+        var firstPage = fetchFirstPage(Flux.just(TASK_ENTITY, TASK_ENTITY));
+        when(taskRepository.findAllByUserIdAfterId(USER_ID, TASK_ID, 2)).thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/page?size=1&cursor={cursor}", USER_ID, firstPage.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskPageDto.class)
+                .value(allOf(
+                        hasProperty("tasks", hasSize(1)),
+                        hasProperty("nextCursor", is(nullValue()))
+                ));
+
+        verify(taskRepository).findAllByUserIdAfterId(USER_ID, TASK_ID, 2);
+    }
+
+    @Test
+    void shouldNotReturnPageForInvalidCursor() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/page?cursor=invalid", USER_ID)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).findAllByUserIdAfterId(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldNotReturnPageForNonExistingUser() {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(false));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/page", USER_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).findAllByUserIdAfterId(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldSearchTasksOfUser() {
+        var otherTask = new TaskEntity.Builder().setId(TASK_ID + 1).setName("beer").setUserId(USER_ID).build();
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserId(USER_ID)).thenReturn(Flux.just(TASK_ENTITY, otherTask));
+        when(taskRepository.findAllByUserIdAndIdIn(USER_ID, List.of(TASK_ID))).thenReturn(Flux.just(TASK_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/search?query={query}&size=1", USER_ID, "Donuts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskPageDto.class)
+                .value(allOf(
+                        hasProperty("tasks", contains(hasProperty("name", is(equalTo(TASK_NAME))))),
+                        hasProperty("nextCursor", is(nullValue()))
+                ));
+    }
+
+    @Test
+    void shouldNotSearchTasksForBlankQuery() {
+        webTestClient.get()
+                .uri("/api/user/{userId}/task/search?query= ", USER_ID)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(taskRepository, never()).findAllByUserId(anyLong());
+    }
+
+    private TaskPageDto fetchFirstPage(Flux<TaskEntity> tasks) {
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskRepository.findAllByUserIdAfterId(USER_ID, 0L, 2)).thenReturn(tasks);
+        return webTestClient.get()
+                .uri("/api/user/{userId}/task/page?size=1", USER_ID)
+                .exchange()
+                .expectBody(TaskPageDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
 }
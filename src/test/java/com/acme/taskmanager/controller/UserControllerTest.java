@@ -14,10 +14,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.empty;
@@ -28,6 +32,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -46,7 +51,7 @@ class UserControllerTest {
     private static final String LAST_NAME = "Simpson";
     private static final UserRequestDto VALID_USER_REQUEST = new UserRequestDto(USERNAME, FIRST_NAME, LAST_NAME);
     private static final UserRequestDto INVALID_USER_REQUEST = new UserRequestDto(INVALID_USERNAME, FIRST_NAME, LAST_NAME);
-    private static final UserEntity USER_ENTITY = new UserEntity(USER_ID, USERNAME, FIRST_NAME, LAST_NAME);
+    private static final UserEntity USER_ENTITY = new UserEntity(USER_ID, USERNAME, FIRST_NAME, LAST_NAME, 3L);
 
     private WebTestClient webTestClient;
 
@@ -107,8 +112,7 @@ class UserControllerTest {
 
     @Test
     void shouldUpdateUserForValidRequest() {
-        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
-        when(userRepository.updateNonNull(eq(USER_ID), isA(UserEntity.class))).thenReturn(Mono.just(1));
+        when(userRepository.updateNonNull(eq(USER_ID), isA(UserEntity.class), isNull())).thenReturn(Mono.just(1));
 
         webTestClient.put()
                 .uri("/api/user/{userId}", USER_ID)
@@ -117,12 +121,13 @@ class UserControllerTest {
                 .expectStatus().isNoContent()
                 .expectBody(Void.class);
 
-        verify(userRepository).updateNonNull(eq(USER_ID), isA(UserEntity.class));
+        verify(userRepository).updateNonNull(eq(USER_ID), isA(UserEntity.class), isNull());
+        verify(userRepository, never()).existsById(anyLong());
     }
 
     @Test
     void shouldNotUpdateUserForNonExistingUser() {
-        when(userRepository.existsById(anyLong())).thenReturn(Mono.just(false));
+        when(userRepository.updateNonNull(eq(USER_ID), isA(UserEntity.class), isNull())).thenReturn(Mono.just(0));
 
         webTestClient.put()
                 .uri("/api/user/{userId}", USER_ID)
@@ -131,7 +136,34 @@ class UserControllerTest {
                 .expectStatus().isNotFound()
                 .expectBody(ErrorResponseDto.class);
 
-        verify(userRepository, never()).updateNonNull(anyLong(), isA(UserEntity.class));
+        verify(userRepository).updateNonNull(eq(USER_ID), isA(UserEntity.class), isNull());
+    }
+
+    @Test
+    void shouldNotUpdateUserForOutdatedVersion() {
+        when(userRepository.updateNonNull(eq(USER_ID), isA(UserEntity.class), eq(2L))).thenReturn(Mono.just(0));
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+
+        webTestClient.put()
+                .uri("/api/user/{userId}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .bodyValue(VALID_USER_REQUEST)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody(ErrorResponseDto.class);
+    }
+
+    @Test
+    void shouldNotUpdateUserForInvalidIfMatchHeader() {
+        webTestClient.put()
+                .uri("/api/user/{userId}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "version")
+                .bodyValue(VALID_USER_REQUEST)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorResponseDto.class);
+
+        verify(userRepository, never()).updateNonNull(anyLong(), any(UserEntity.class), any());
     }
 
     @Test
@@ -142,6 +174,7 @@ class UserControllerTest {
                 .uri("/api/user/{userId}", USER_ID)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
                 .expectBody(UserInfoDto.class)
                 .value(allOf(
                         hasProperty("id", is(equalTo(USER_ID))),
@@ -153,6 +186,18 @@ class UserControllerTest {
         verify(userRepository).findById(USER_ID);
     }
 
+    @Test
+    void shouldNotReturnUnmodifiedUserInfo() {
+        when(userRepository.findById(USER_ID)).thenReturn(Mono.just(USER_ENTITY));
+
+        webTestClient.get()
+                .uri("/api/user/{userId}", USER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
     @Test
     void shouldNotGetUserInfoForNonExistingUser() {
         when(userRepository.findById(USER_ID)).thenReturn(Mono.empty());
@@ -196,4 +241,22 @@ class UserControllerTest {
 
         verify(userRepository).findAll();
     }
+
+    @Test
+    void shouldStreamAllUsersAsNdjson() {
+        when(userRepository.findAll()).thenReturn(Flux.just(USER_ENTITY, USER_ENTITY));
+
+        var result = webTestClient.get()
+                .uri("/api/user")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserResponseDto.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNextMatches(user -> USERNAME.equals(user.getUsername()))
+                .expectNextMatches(user -> USERNAME.equals(user.getUsername()))
+                .verifyComplete();
+    }
 }
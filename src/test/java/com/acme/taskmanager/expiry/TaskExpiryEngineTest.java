@@ -0,0 +1,118 @@
+package com.acme.taskmanager.expiry;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.service.ExpiredTaskSweeper;
+import com.acme.taskmanager.type.TaskChangeType;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link TaskExpiryEngine}.
+ */
+class TaskExpiryEngineTest {
+    private static final Long USER_ID = 1L;
+    private static final Long TASK_ID = 2L;
+    private static final Duration EXPIRATION = Duration.ofDays(30);
+
+    private TaskRepository taskRepository;
+    private ExpiredTaskSweeper expiredTaskSweeper;
+    private ApplicationEventPublisher eventPublisher;
+    private TaskExpiryEngine taskExpiryEngine;
+
+    @BeforeEach
+    public void setup() {
+        taskRepository = mock(TaskRepository.class);
+        expiredTaskSweeper = mock(ExpiredTaskSweeper.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        taskExpiryEngine = new TaskExpiryEngine(taskRepository, expiredTaskSweeper, new SimpleMeterRegistry(),
+                eventPublisher, EXPIRATION, Duration.ofMillis(100), Duration.ofHours(1), 500);
+    }
+
+    @Test
+    void shouldExpireCreatedTaskAtDeadline() {
+        when(taskRepository.updatePendingTasksByIdInBeforeDateTime(eq(List.of(TASK_ID)), any(), eq(TaskStatus.DONE)))
+                .thenReturn(Mono.just(List.of(new TaskEntity.Builder()
+                        .setId(TASK_ID)
+                        .setUserId(USER_ID)
+                        .setStatus(TaskStatus.DONE)
+                        .build())));
+        taskExpiryEngine.onTaskChange(created(TASK_ID, LocalDateTime.now().minus(EXPIRATION).plusSeconds(2)));
+
+        StepVerifier.create(taskExpiryEngine.expireDue(System.currentTimeMillis())).verifyComplete();
+        StepVerifier.create(taskExpiryEngine.expireDue(System.currentTimeMillis() + 3000)).expectNext(1).verifyComplete();
+
+        assertThat(taskExpiryEngine.size(), is(equalTo(0)));
+        verify(eventPublisher).publishEvent(argThat((TaskChangeEvent event) -> event.getType() == TaskChangeType.EXPIRED
+                && event.getUserId().equals(USER_ID) && event.getTaskId().equals(TASK_ID)));
+    }
+
+    @Test
+    void shouldNotTrackTaskBeyondHorizon() {
+        taskExpiryEngine.onTaskChange(created(TASK_ID, LocalDateTime.now()));
+
+        assertThat(taskExpiryEngine.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldForgetDeletedAndDoneTasks() {
+        var dateTime = LocalDateTime.now().minus(EXPIRATION).plusSeconds(2);
+        taskExpiryEngine.onTaskChange(created(TASK_ID, dateTime));
+        taskExpiryEngine.onTaskChange(created(TASK_ID + 1, dateTime));
+        taskExpiryEngine.onTaskChange(new TaskChangeEvent(TaskChangeType.DELETED, USER_ID, TASK_ID, null));
+        taskExpiryEngine.onTaskChange(new TaskChangeEvent(TaskChangeType.UPDATED, USER_ID, TASK_ID + 1,
+                new TaskEntity.Builder().setStatus(TaskStatus.DONE).build()));
+
+        StepVerifier.create(taskExpiryEngine.expireDue(System.currentTimeMillis() + 3000)).verifyComplete();
+
+        verify(taskRepository, never()).updatePendingTasksByIdInBeforeDateTime(anyCollection(), any(), any());
+    }
+
+    @Test
+    void shouldLoadUpcomingDeadlinesOnlyWithLease() {
+        var upcoming = new TaskEntity.Builder()
+                .setId(TASK_ID)
+                .setUserId(USER_ID)
+                .setDateTime(LocalDateTime.now().minus(EXPIRATION).plusMinutes(5))
+                .build();
+        when(taskRepository.findPendingTasksBetweenDateTimes(any(), any())).thenReturn(Flux.just(upcoming));
+        when(expiredTaskSweeper.sweep()).thenReturn(Mono.empty()).thenReturn(Mono.just(0));
+
+        StepVerifier.create(taskExpiryEngine.reconcile()).verifyComplete();
+        StepVerifier.create(taskExpiryEngine.reconcile()).expectNext(1L).verifyComplete();
+
+        assertThat(taskExpiryEngine.size(), is(equalTo(1)));
+    }
+
+    private static TaskChangeEvent created(Long taskId, LocalDateTime dateTime) {
+        return new TaskChangeEvent(TaskChangeType.CREATED, USER_ID, taskId, new TaskEntity.Builder()
+                .setId(taskId)
+                .setUserId(USER_ID)
+                .setDateTime(dateTime)
+                .setStatus(TaskStatus.PENDING)
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.acme.taskmanager.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test for {@link TimingWheel}.
+ */
+class TimingWheelTest {
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    @Test
+    void shouldFireAtDeadline() {
+        var wheel = new TimingWheel(TICK, 4, START);
+        wheel.schedule(1L, START + 250);
+
+        assertThat(wheel.advance(START + 200), is(empty()));
+        assertThat(wheel.advance(START + 300), contains(1L));
+        assertThat(wheel.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCascadeDeadlinesFromHigherLevels() {
+        var wheel = new TimingWheel(TICK, 4, START);
+        var deadline = START + 64L * 64 * 5 * TICK + 7 * TICK;
+        wheel.schedule(1L, deadline);
+
+        assertThat(wheel.advance(deadline - TICK), is(empty()));
+        assertThat(wheel.advance(deadline), contains(1L));
+    }
+
+    @Test
+    void shouldFireEveryDeadlineExactlyOnceInOrder() {
+        var wheel = new TimingWheel(TICK, 3, START);
+        var random = new Random(42);
+        var deadlines = new HashMap<Long, Long>();
+        for (long id = 0; id < 2000; id++) {
+            var deadline = START + (long) (random.nextDouble() * wheel.getRangeMillis());
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+        }
+
+        var fired = new ArrayList<Long>();
+        for (long now = START; now <= START + wheel.getRangeMillis() + TICK; now += 7 * TICK) {
+            for (var id : wheel.advance(now)) {
+                assertThat(deadlines.get(id) <= now, is(true));
+                assertThat(deadlines.get(id) > now - 8 * TICK, is(true));
+                fired.add(id);
+            }
+        }
+        assertThat(fired.size(), is(equalTo(deadlines.size())));
+        assertThat(wheel.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldNotFireCancelledOrRescheduledDeadline() {
+        var wheel = new TimingWheel(TICK, 4, START);
+        wheel.schedule(1L, START + 500);
+        wheel.schedule(2L, START + 500);
+        wheel.cancel(1L);
+        wheel.schedule(2L, START + 5000);
+
+        assertThat(wheel.advance(START + 1000), is(empty()));
+        assertThat(wheel.advance(START + 5000), contains(2L));
+    }
+
+    @Test
+    void shouldFireOverdueDeadlineOnNextAdvance() {
+        var wheel = new TimingWheel(TICK, 4, START);
+        wheel.schedule(1L, START - 1000);
+
+        assertThat(wheel.advance(START), contains(1L));
+    }
+
+    @Test
+    void shouldRejectDeadlineBeyondRange() {
+        var wheel = new TimingWheel(TICK, 2, START);
+
+        assertThat(wheel.schedule(1L, START + wheel.getRangeMillis()), is(true));
+        assertThat(wheel.schedule(2L, START + 64 * 64 * TICK * 2), is(false));
+        assertThat(wheel.size(), is(equalTo(1)));
+    }
+}
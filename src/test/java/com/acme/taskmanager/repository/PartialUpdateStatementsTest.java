@@ -0,0 +1,102 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.type.TaskStatus;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Unit test for {@link PartialUpdateStatements}, running the statements on an embedded database.
+ */
+class PartialUpdateStatementsTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+    private PartialUpdateStatements<TaskEntity> partialUpdates;
+    private Long taskId;
+
+    @BeforeEach
+    public void setup() {
+        var database = "updates-" + UUID.randomUUID();
+        Flyway.configure().dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "").load().migrate();
+        r2dbcEntityTemplate = new R2dbcEntityTemplate(
+                ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS));
+        partialUpdates = new PartialUpdateStatements<>(r2dbcEntityTemplate.getConverter(), r2dbcEntityTemplate
+                .getConverter().getMappingContext().getRequiredPersistentEntity(TaskEntity.class),
+                H2Dialect.INSTANCE.getBindMarkersFactory());
+        var databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        databaseClient.sql("INSERT INTO user (id, username) VALUES (1, 'homer')").then().block();
+        databaseClient.sql("INSERT INTO task (id, user_id, name, description, date_time) "
+                + "VALUES (2, 1, 'donut', 'buy donuts', TIMESTAMP '2022-01-30 10:20:30')").then().block();
+        taskId = 2L;
+    }
+
+    @Test
+    void shouldUpdateNonNullColumnsAndIncrementVersion() {
+        update(Map.of("id", taskId, "user_id", 1L), null, new TaskEntity.Builder().setStatus(TaskStatus.DONE).build(), 1);
+
+        var task = findTask();
+        assertThat(task.getName(), is(equalTo("donut")));
+        assertThat(task.getDescription(), is(equalTo("buy donuts")));
+        assertThat(task.getDateTime(), is(equalTo(DATE_TIME)));
+        assertThat(task.getStatus(), is(equalTo(TaskStatus.DONE)));
+        assertThat(task.getVersion(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldOnlyUpdateExpectedVersion() {
+        var entity = new TaskEntity.Builder().setName("beer").build();
+
+        update(Map.of("id", taskId), 1L, entity, 0);
+        update(Map.of("id", taskId), 0L, entity, 1);
+        update(Map.of("id", taskId, "user_id", 2L), 1L, entity, 0);
+
+        assertThat(findTask().getName(), is(equalTo("beer")));
+        assertThat(findTask().getVersion(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldRenderStatementOncePerColumnCombination() {
+        update(Map.of("id", taskId), null, new TaskEntity.Builder().setName("beer").build(), 1);
+        update(Map.of("id", taskId), null, new TaskEntity.Builder().setName("wine").build(), 1);
+        assertThat(partialUpdates.size(), is(equalTo(1)));
+
+        update(Map.of("id", taskId), 2L, new TaskEntity.Builder().setName("wine").build(), 1);
+        update(Map.of("id", taskId), null, new TaskEntity.Builder().setName("beer").setDescription("cold").build(), 1);
+        assertThat(partialUpdates.size(), is(equalTo(3)));
+    }
+
+    @Test
+    void shouldNotPrepareStatementWithoutNonNullColumn() {
+        assertThat(partialUpdates.prepare(r2dbcEntityTemplate.getDatabaseClient(), Map.of("id", taskId), 0L,
+                new TaskEntity.Builder().setVersion(3L).build()), is(nullValue()));
+    }
+
+    private void update(Map<String, Object> conditions, Long expectedVersion, TaskEntity entity, int expectedCount) {
+        StepVerifier.create(partialUpdates.prepare(r2dbcEntityTemplate.getDatabaseClient(), conditions, expectedVersion,
+                        entity).fetch().rowsUpdated())
+                .expectNext(expectedCount)
+                .verifyComplete();
+    }
+
+    private TaskEntity findTask() {
+        return r2dbcEntityTemplate.selectOne(query(where("id").is(taskId)), TaskEntity.class).block();
+    }
+}
@@ -0,0 +1,141 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.type.TaskStatus;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test for {@link ReadReplicaRoutingConnectionFactory}, routing the repositories between two embedded databases
+ * which are not replicated, so each read shows where it was routed.
+ */
+class ReadReplicaRoutingConnectionFactoryTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionFactory primary;
+    private ReadReplicaRoutingConnectionFactory routing;
+    private TaskRepository taskRepository;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        var beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        primary = database("INSERT INTO user (id, username) VALUES (1, 'homer'), (2, 'marge')");
+        var replica = database("INSERT INTO user (id, username) VALUES (1, 'homer-replica'), (2, 'marge-replica')");
+        routing = new ReadReplicaRoutingConnectionFactory(primary, replica, WINDOW, 100,
+                beanFactory.getBeanProvider(MeterRegistry.class), (Ticker) nanos::get);
+        var r2dbcEntityTemplate = new R2dbcEntityTemplate(routing);
+        var transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(routing));
+        taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        userRepository = new UserRepository(r2dbcEntityTemplate, meterRegistry);
+    }
+
+    @Test
+    void shouldFindRoutingFactory() {
+        assertThat(ReadReplicaRoutingConnectionFactory.find(routing), is(sameInstance(routing)));
+        assertThat(ReadReplicaRoutingConnectionFactory.find(primary), is(equalTo(null)));
+    }
+
+    @Test
+    void shouldReadFromReplica() {
+        StepVerifier.create(userRepository.findById(1L))
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("homer-replica"))))
+                .verifyComplete();
+        StepVerifier.create(userRepository.findAll().count()).expectNext(2L).verifyComplete();
+
+        assertThat(count("replica", "read-only"), is(equalTo(2.0)));
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimaryWithinWindow() {
+        StepVerifier.create(taskRepository.save(new TaskEntity.Builder().setUserId(1L).setName("donut").build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(taskRepository.findAllByUserId(1L).count()).expectNext(1L).verifyComplete();
+        StepVerifier.create(userRepository.findById(1L))
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("homer"))))
+                .verifyComplete();
+        StepVerifier.create(userRepository.findById(2L))
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("marge-replica"))))
+                .verifyComplete();
+
+        nanos.addAndGet(WINDOW.toNanos());
+
+        StepVerifier.create(taskRepository.findAllByUserId(1L).count()).expectNext(0L).verifyComplete();
+        assertThat(count("primary", "read-your-writes"), is(equalTo(2.0)));
+        assertThat(count("replica", "read-only"), is(equalTo(2.0)));
+    }
+
+    @Test
+    void shouldReadUsersFromPrimaryIfAnyWroteWithinWindow() {
+        StepVerifier.create(userRepository.findAllById(List.of(1L, 2L)).map(UserEntity::getUsername).collectList())
+                .assertNext(usernames -> assertThat(usernames, containsInAnyOrder("homer-replica", "marge-replica")))
+                .verifyComplete();
+
+        StepVerifier.create(userRepository.updateNonNull(2L, new UserEntity(null, null, "Marge", null, null)))
+                .expectNext(1)
+                .verifyComplete();
+
+        StepVerifier.create(userRepository.findAllById(List.of(1L, 2L)).map(UserEntity::getUsername).collectList())
+                .assertNext(usernames -> assertThat(usernames, containsInAnyOrder("homer", "marge")))
+                .verifyComplete();
+        assertThat(count("primary", "read-your-writes"), is(equalTo(1.0)));
+        assertThat(count("replica", "read-only"), is(equalTo(1.0)));
+    }
+
+    @Test
+    void shouldWriteToPrimary() {
+        StepVerifier.create(taskRepository.updateStatusByUserIdAndIdIn(1L, List.of(1L), TaskStatus.DONE))
+                .expectNext(0)
+                .verifyComplete();
+
+        assertThat(count("primary", "read-write"), is(equalTo(1.0)));
+        assertThat(meterRegistry.find(ReadReplicaRoutingConnectionFactory.COUNTER).tag("target", "replica").counter(),
+                is(equalTo(null)));
+    }
+
+    private double count(String target, String reason) {
+        return meterRegistry.get(ReadReplicaRoutingConnectionFactory.COUNTER)
+                .tag("target", target)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+
+    private static ConnectionFactory database(String users) {
+        var database = "routing-" + UUID.randomUUID();
+        Flyway.configure().dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "").load().migrate();
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS);
+        new R2dbcEntityTemplate(connectionFactory).getDatabaseClient().sql(users).then().block();
+        return connectionFactory;
+    }
+}
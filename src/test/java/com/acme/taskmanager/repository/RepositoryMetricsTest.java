@@ -0,0 +1,50 @@
+package com.acme.taskmanager.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test for {@link RepositoryMetrics}.
+ */
+class RepositoryMetricsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RepositoryMetrics repositoryMetrics;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        repositoryMetrics = new RepositoryMetrics(meterRegistry, "task");
+    }
+
+    @Test
+    void shouldTimeEverySubscription() {
+        var mono = repositoryMetrics.timed("findById", Mono.just(1));
+
+        StepVerifier.create(mono).expectNext(1).verifyComplete();
+        StepVerifier.create(mono).expectNext(1).verifyComplete();
+        StepVerifier.create(repositoryMetrics.timed("findAll", Flux.just(1, 2))).expectNext(1, 2).verifyComplete();
+
+        assertThat(meterRegistry.get(RepositoryMetrics.TIMER).tag("entity", "task").tag("operation", "findById")
+                .timer().count(), is(equalTo(2L)));
+        assertThat(meterRegistry.get(RepositoryMetrics.TIMER).tag("entity", "task").tag("operation", "findAll")
+                .timer().count(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldCountErrors() {
+        StepVerifier.create(repositoryMetrics.timed("save", Mono.error(new IllegalStateException("intentionally thrown for testing purposes"))))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(meterRegistry.get(RepositoryMetrics.ERRORS).tag("operation", "save")
+                .tag("exception", "IllegalStateException").counter().count(), is(equalTo(1.0)));
+        assertThat(meterRegistry.get(RepositoryMetrics.TIMER).tag("operation", "save").timer().count(), is(equalTo(1L)));
+    }
+}
@@ -0,0 +1,153 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for {@link TaskInsertBatcher}, inserting into an embedded database.
+ */
+class TaskInsertBatcherTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskRepository taskRepository;
+    private TaskStatisticsRepository taskStatisticsRepository;
+    private TaskInsertBatcher taskInsertBatcher;
+
+    @BeforeEach
+    public void setup() {
+        var database = "batcher-" + UUID.randomUUID();
+        Flyway.configure()
+                .dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        var r2dbcEntityTemplate = new R2dbcEntityTemplate(
+                ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS));
+        meterRegistry = new SimpleMeterRegistry();
+        var transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory()));
+        taskStatisticsRepository = new TaskStatisticsRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        taskInsertBatcher = new TaskInsertBatcher(taskRepository, meterRegistry, true, Duration.ofSeconds(10), 3, 1);
+        r2dbcEntityTemplate.getDatabaseClient()
+                .sql("INSERT INTO user (id, username) VALUES (1, 'homer'), (2, 'marge')")
+                .then().block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskInsertBatcher.stop();
+    }
+
+    @Test
+    void shouldInsertConcurrentTasksInOneBatch() {
+        var inserts = Mono.zip(
+                taskInsertBatcher.save(task(1L, "donut")),
+                taskInsertBatcher.save(task(2L, "donut")),
+                taskInsertBatcher.save(task(1L, "beer")));
+
+        StepVerifier.create(inserts)
+                .assertNext(saved -> {
+                    assertThat(saved.getT1().getUserId(), is(equalTo(1L)));
+                    assertThat(saved.getT1().getName(), is(equalTo("donut")));
+                    assertThat(saved.getT2().getUserId(), is(equalTo(2L)));
+                    assertThat(saved.getT3().getName(), is(equalTo("beer")));
+                    assertThat(saved.getT1().getId(), is(notNullValue()));
+                    assertThat(List.of(saved.getT1().getId(), saved.getT2().getId(), saved.getT3().getId())
+                            .stream().distinct().count(), is(equalTo(3L)));
+                })
+                .verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserId(1L).count()).expectNext(2L).verifyComplete();
+        StepVerifier.create(taskStatisticsRepository.findCountsByUserId(2L))
+                .expectNext(Map.of(TaskStatus.PENDING, 1L))
+                .verifyComplete();
+        assertThat(meterRegistry.get("task.insert.batch.size").summary().count(), is(equalTo(1L)));
+        assertThat(meterRegistry.get("task.insert.batch.size").summary().totalAmount(), is(equalTo(3.0)));
+    }
+
+    @Test
+    void shouldFailOnlyConflictingInsertOfBatch() {
+        var first = taskInsertBatcher.save(task(1L, "donut")).cache();
+        var conflicting = taskInsertBatcher.save(task(1L, "donut")).cache();
+        var other = taskInsertBatcher.save(task(2L, "beer")).cache();
+        first.subscribe();
+        conflicting.subscribe(task -> { }, error -> { });
+        other.subscribe();
+
+        StepVerifier.create(first).expectNextCount(1).verifyComplete();
+        StepVerifier.create(conflicting).verifyError(DataIntegrityViolationException.class);
+        StepVerifier.create(other).expectNextCount(1).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserId(1L).count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void shouldInsertQueuedTasksOnStop() {
+        var insert = taskInsertBatcher.save(task(1L, "donut")).cache();
+        insert.subscribe();
+
+        taskInsertBatcher.stop();
+
+        StepVerifier.create(insert).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void shouldFailOnlyCallersMissingRowsAndGoOn() {
+        var returned = task(2L, "donut");
+        var failingRepository = mock(TaskRepository.class);
+        when(failingRepository.insertAll(anyList()))
+                .thenReturn(Mono.just(List.of(returned)))
+                .thenReturn(Mono.just(List.of(task(1L, "beer"), task(2L, "beer"))));
+        var batcher = new TaskInsertBatcher(failingRepository, meterRegistry, true, Duration.ofSeconds(10), 2, 1);
+        try {
+            var homer = batcher.save(task(1L, "donut")).cache();
+            var marge = batcher.save(task(2L, "donut")).cache();
+            homer.subscribe(saved -> { }, error -> { });
+            marge.subscribe(saved -> { }, error -> { });
+
+            StepVerifier.create(homer).verifyError(IllegalStateException.class);
+            StepVerifier.create(marge).expectNext(returned).verifyComplete();
+            StepVerifier.create(Mono.zip(batcher.save(task(1L, "beer")), batcher.save(task(2L, "beer"))))
+                    .assertNext(saved -> assertThat(saved.getT2().getUserId(), is(equalTo(2L))))
+                    .verifyComplete();
+        } finally {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void shouldFailInsertsAfterStop() {
+        taskInsertBatcher.stop();
+
+        StepVerifier.create(taskInsertBatcher.save(task(1L, "donut"))).verifyError(IllegalStateException.class);
+    }
+
+    private static TaskEntity task(Long userId, String name) {
+        return new TaskEntity.Builder().setUserId(userId).setName(name).build();
+    }
+}
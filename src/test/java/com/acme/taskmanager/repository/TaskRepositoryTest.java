@@ -0,0 +1,194 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.entity.UserEntity;
+import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.type.TaskSort;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.samePropertyValuesAs;
+
+/**
+ * Test for the queries of {@link TaskRepository}, {@link TaskStatisticsRepository} and {@link UserRepository},
+ * running on an embedded database.
+ */
+class TaskRepositoryTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2022, 1, 30, 10, 20, 30);
+    private static final UserEntity USER = new UserEntity(1L, "homer", "Homer", "Simpson", 0L);
+    private static final TaskEntity DONUT = new TaskEntity(2L, 1L, "donut", "buy donuts", DATE_TIME, TaskStatus.PENDING, 0L);
+    private static final TaskEntity BEER = new TaskEntity(3L, 1L, "beer", null, DATE_TIME, TaskStatus.DONE, 4L);
+
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+    private TaskRepository taskRepository;
+    private TaskStatisticsRepository taskStatisticsRepository;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setup() {
+        var database = "repository-" + UUID.randomUUID();
+        Flyway.configure()
+                .dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        r2dbcEntityTemplate = new R2dbcEntityTemplate(
+                ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS));
+        var meterRegistry = new SimpleMeterRegistry();
+        var transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory()));
+        taskStatisticsRepository = new TaskStatisticsRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        taskRepository = new TaskRepository(r2dbcEntityTemplate, transactionalOperator, meterRegistry);
+        userRepository = new UserRepository(r2dbcEntityTemplate, meterRegistry);
+        var databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        databaseClient.sql("INSERT INTO user (id, username, first_name, last_name) VALUES (1, 'homer', 'Homer', 'Simpson')")
+                .then().block();
+        databaseClient.sql("INSERT INTO task (id, user_id, name, description, date_time, status, version) VALUES "
+                + "(2, 1, 'donut', 'buy donuts', TIMESTAMP '2022-01-30 10:20:30', 'PENDING', 0), "
+                + "(3, 1, 'beer', NULL, TIMESTAMP '2022-01-30 10:20:30', 'DONE', 4)").then().block();
+        taskStatisticsRepository.reconcile(0L, 1L).block();
+    }
+
+    @Test
+    void shouldFindUser() {
+        StepVerifier.create(userRepository.findById(1L)).assertNext(sameAs(USER)).verifyComplete();
+        StepVerifier.create(userRepository.findById(2L)).verifyComplete();
+        StepVerifier.create(userRepository.existsById(1L)).expectNext(true).verifyComplete();
+        StepVerifier.create(userRepository.existsById(2L)).expectNext(false).verifyComplete();
+        StepVerifier.create(userRepository.findAll()).assertNext(sameAs(USER)).verifyComplete();
+    }
+
+    @Test
+    void shouldInsertTasksOfUsersInGivenOrder() {
+        r2dbcEntityTemplate.getDatabaseClient().sql("INSERT INTO user (id, username) VALUES (2, 'marge')").then().block();
+        var tasks = List.of(
+                new TaskEntity.Builder().setUserId(2L).setName("donut").build(),
+                new TaskEntity.Builder().setUserId(1L).setName("duff").setStatus(TaskStatus.DONE).build());
+
+        StepVerifier.create(taskRepository.insertAll(tasks))
+                .assertNext(saved -> {
+                    assertThat(saved.get(0).getUserId(), is(equalTo(2L)));
+                    assertThat(saved.get(0).getName(), is(equalTo("donut")));
+                    assertThat(saved.get(1).getName(), is(equalTo("duff")));
+                    assertThat(saved.get(0).getId().equals(saved.get(1).getId()), is(false));
+                })
+                .verifyComplete();
+        assertCounts(1L, 2L);
+        StepVerifier.create(taskStatisticsRepository.findCountsByUserId(2L))
+                .expectNext(Map.of(TaskStatus.PENDING, 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindTaskOfUser() {
+        StepVerifier.create(taskRepository.findById(2L)).assertNext(sameAs(DONUT)).verifyComplete();
+        StepVerifier.create(taskRepository.findByIdAndUserId(3L, 1L)).assertNext(sameAs(BEER)).verifyComplete();
+        StepVerifier.create(taskRepository.findByIdAndUserId(3L, 2L)).verifyComplete();
+        StepVerifier.create(taskRepository.existsByIdAndUserId(2L, 1L)).expectNext(true).verifyComplete();
+        StepVerifier.create(taskRepository.existsByIdAndUserId(2L, 2L)).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void shouldFindTasksOfUser() {
+        StepVerifier.create(taskRepository.findAllByUserId(1L).collectList())
+                .assertNext(tasks -> assertThat(tasks, containsInAnyOrder(samePropertyValuesAs(DONUT), samePropertyValuesAs(BEER))))
+                .verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAfterId(1L, 0L, 1)).assertNext(sameAs(DONUT)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAfterId(1L, 2L, 10)).assertNext(sameAs(BEER)).verifyComplete();
+    }
+
+    @Test
+    void shouldFindFilteredTasksOfUser() {
+        var before = DATE_TIME.minusSeconds(1);
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilter(1L, TaskStatus.DONE, null, null, TaskSort.ID, false))
+                .assertNext(sameAs(BEER)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilter(1L, null, before, DATE_TIME, TaskSort.NAME, false))
+                .assertNext(sameAs(BEER)).assertNext(sameAs(DONUT)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilter(1L, null, null, before, TaskSort.ID, false))
+                .verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilter(1L, null, null, null, TaskSort.DATE_TIME, true))
+                .assertNext(sameAs(BEER)).assertNext(sameAs(DONUT)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilterAfterId(1L, null, before, null, 2L, 10))
+                .assertNext(sameAs(BEER)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndFilterAfterId(1L, TaskStatus.PENDING, null, null, 0L, 1))
+                .assertNext(sameAs(DONUT)).verifyComplete();
+    }
+
+    @Test
+    void shouldFindTasksOfUserById() {
+        StepVerifier.create(taskRepository.findAllByUserIdAndIdIn(1L, List.of(3L, 4L))).assertNext(sameAs(BEER)).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByUserIdAndIdIn(2L, List.of(2L, 3L))).verifyComplete();
+    }
+
+    @Test
+    void shouldNotHaveFullTextIndexWithoutVendorMigration() {
+        StepVerifier.create(taskRepository.hasFullTextIndex()).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void shouldMaintainStatisticsOfUser() {
+        StepVerifier.create(taskRepository.save(new TaskEntity.Builder().setUserId(1L).setName("duff").build()))
+                .expectNextCount(1).verifyComplete();
+        assertCounts(2L, 1L);
+        StepVerifier.create(taskRepository.updateNonNullByIdAndUserId(2L, 1L,
+                new TaskEntity.Builder().setStatus(TaskStatus.DONE).build(), null)).expectNext(1).verifyComplete();
+        assertCounts(1L, 2L);
+        StepVerifier.create(taskRepository.updateNonNullByIdAndUserId(2L, 1L,
+                new TaskEntity.Builder().setStatus(TaskStatus.PENDING).build(), 0L)).expectNext(0).verifyComplete();
+        assertCounts(1L, 2L);
+        StepVerifier.create(taskRepository.deleteByIdAndUserId(3L, 1L)).verifyComplete();
+        assertCounts(1L, 1L);
+        StepVerifier.create(taskRepository.deleteByIdAndUserId(3L, 1L)).verifyError(EntityNotFoundException.class);
+        StepVerifier.create(taskRepository.updatePendingTasksBeforeDateTime(LocalDateTime.now().plusDays(1), TaskStatus.DONE, 10))
+                .expectNext(1).verifyComplete();
+        assertCounts(0L, 2L);
+        StepVerifier.create(taskRepository.deleteByUserIdAndFilter(1L, TaskStatus.DONE, null, null, 10))
+                .expectNext(2).verifyComplete();
+        assertCounts(0L, 0L);
+    }
+
+    @Test
+    void shouldReconcileStatisticsOfUser() {
+        r2dbcEntityTemplate.getDatabaseClient().sql("UPDATE task_statistics SET task_count = 5").then().block();
+        assertCounts(5L, 5L);
+        StepVerifier.create(taskStatisticsRepository.findMaxUserId()).expectNext(1L).verifyComplete();
+        StepVerifier.create(taskStatisticsRepository.reconcile(0L, 1L)).expectNextCount(1).verifyComplete();
+        assertCounts(1L, 1L);
+    }
+
+    @Test
+    void shouldCountOverdueTasksOfUser() {
+        StepVerifier.create(taskRepository.countPendingByUserIdBeforeDateTime(1L, DATE_TIME.plusSeconds(1)))
+                .expectNext(1L).verifyComplete();
+        StepVerifier.create(taskRepository.countPendingByUserIdBeforeDateTime(1L, DATE_TIME)).expectNext(0L).verifyComplete();
+    }
+
+    private void assertCounts(Long pending, Long done) {
+        StepVerifier.create(taskStatisticsRepository.findCountsByUserId(1L))
+                .assertNext(counts -> assertThat(counts, is(equalTo(Map.of(TaskStatus.PENDING, pending, TaskStatus.DONE, done)))))
+                .verifyComplete();
+    }
+
+    private static <T> Consumer<T> sameAs(T expected) {
+        return actual -> assertThat(actual, samePropertyValuesAs(expected));
+    }
+}
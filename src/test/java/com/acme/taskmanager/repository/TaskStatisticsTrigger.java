@@ -0,0 +1,39 @@
+package com.acme.taskmanager.repository;
+
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Embedded database trigger maintaining the task statistics like the MariaDB triggers of the vendor migrations.
+ */
+public class TaskStatisticsTrigger extends TriggerAdapter {
+
+    @Override
+    public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (oldRow != null && newRow != null
+                && Objects.equals(oldRow.getLong("user_id"), newRow.getLong("user_id"))
+                && Objects.equals(oldRow.getString("status"), newRow.getString("status"))) {
+            return;
+        }
+        if (oldRow != null) {
+            add(connection, oldRow, -1);
+        }
+        if (newRow != null) {
+            add(connection, newRow, 1);
+        }
+    }
+
+    private static void add(Connection connection, ResultSet row, int delta) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO task_statistics (user_id, status, task_count) "
+                + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)")) {
+            statement.setLong(1, row.getLong("user_id"));
+            statement.setString(2, row.getString("status"));
+            statement.setInt(3, delta);
+            statement.executeUpdate();
+        }
+    }
+}
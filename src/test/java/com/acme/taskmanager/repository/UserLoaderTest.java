@@ -0,0 +1,119 @@
+package com.acme.taskmanager.repository;
+
+import com.acme.taskmanager.entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test for {@link UserLoader}, loading from an embedded database on ticks run by the test.
+ */
+class UserLoaderTest {
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private final List<Runnable> ticks = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private UserRepository userRepository;
+    private UserLoader userLoader;
+
+    @BeforeEach
+    public void setup() {
+        var database = "loader-" + UUID.randomUUID();
+        Flyway.configure().dataSource("jdbc:h2:mem:" + database + ";" + H2_OPTIONS, "sa", "").load().migrate();
+        var r2dbcEntityTemplate = new R2dbcEntityTemplate(
+                ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?options=" + H2_OPTIONS));
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = new UserRepository(r2dbcEntityTemplate, meterRegistry);
+        userLoader = new UserLoader(userRepository, meterRegistry, true, 2, Schedulers.fromExecutor(ticks::add));
+        r2dbcEntityTemplate.getDatabaseClient()
+                .sql("INSERT INTO user (id, username) VALUES (1, 'homer'), (2, 'marge'), (3, 'bart')")
+                .then().block();
+    }
+
+    @Test
+    void shouldLoadConcurrentLookupsInOneQuery() {
+        var homer = userLoader.findById(1L).cache();
+        var homerAgain = userLoader.findById(1L).cache();
+        var marge = userLoader.findById(2L).cache();
+        var unknown = userLoader.findById(4L).cache();
+        List.of(homer, homerAgain, marge, unknown).forEach(Mono::subscribe);
+
+        runTicks();
+
+        StepVerifier.create(homer)
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("homer"))))
+                .verifyComplete();
+        StepVerifier.create(homerAgain)
+                .assertNext(user -> assertThat(user, is(sameInstance(homer.block()))))
+                .verifyComplete();
+        StepVerifier.create(marge)
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("marge"))))
+                .verifyComplete();
+        StepVerifier.create(unknown).verifyComplete();
+        assertThat(meterRegistry.get("repository.operation").tag("operation", "findAllById").timer().count(),
+                is(equalTo(2L)));
+        assertThat(meterRegistry.get("user.load.batch.size").summary().totalAmount(), is(equalTo(3.0)));
+    }
+
+    @Test
+    void shouldDropCancelledLookups() {
+        var cancelled = userLoader.findById(1L).subscribe();
+        var marge = userLoader.findById(2L).cache();
+        marge.subscribe();
+        cancelled.dispose();
+
+        runTicks();
+
+        StepVerifier.create(marge)
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("marge"))))
+                .verifyComplete();
+        assertThat(meterRegistry.get("user.load.batch.size").summary().totalAmount(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void shouldLoadLookupsOfLaterTicksSeparately() {
+        var homer = userLoader.findById(1L).cache();
+        homer.subscribe();
+        runTicks();
+        var bart = userLoader.findById(3L).cache();
+        bart.subscribe();
+        runTicks();
+
+        StepVerifier.create(homer).expectNextCount(1).verifyComplete();
+        StepVerifier.create(bart)
+                .assertNext(user -> assertThat(user.getUsername(), is(equalTo("bart"))))
+                .verifyComplete();
+        assertThat(meterRegistry.get("user.load.batch.size").summary().count(), is(equalTo(2L)));
+    }
+
+    @Test
+    void shouldFindByIdIfDisabled() {
+        var disabledLoader = new UserLoader(userRepository, meterRegistry, false, 2);
+
+        StepVerifier.create(disabledLoader.findById(2L).map(UserEntity::getUsername))
+                .expectNext("marge")
+                .verifyComplete();
+        assertThat(ticks.size(), is(equalTo(0)));
+    }
+
+    private void runTicks() {
+        while (!ticks.isEmpty()) {
+            ticks.remove(0).run();
+        }
+    }
+}
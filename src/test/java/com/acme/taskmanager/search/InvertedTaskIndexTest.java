@@ -0,0 +1,67 @@
+package com.acme.taskmanager.search;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test for {@link InvertedTaskIndex}.
+ */
+class InvertedTaskIndexTest {
+    private InvertedTaskIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new InvertedTaskIndex(List.of(
+                task(1L, "donut", "buy donuts at the Kwik-E-Mart"),
+                task(2L, "beer", "buy Duff beer, lots of beer"),
+                task(3L, "work", null)));
+    }
+
+    @Test
+    void shouldRankTasksMatchingAnyTerm() {
+        assertThat(index.search("beer", 0, 10), contains(2L));
+        assertThat(index.search("Buy BEER!", 0, 10), contains(2L, 1L));
+        assertThat(index.search("kwik work", 0, 10), contains(3L, 1L));
+    }
+
+    @Test
+    void shouldIgnoreShortAndUnknownTerms() {
+        assertThat(index.search("at of", 0, 10), is(empty()));
+        assertThat(index.search("wine", 0, 10), is(empty()));
+        assertThat(index.search("", 0, 10), is(empty()));
+    }
+
+    @Test
+    void shouldPaginateResults() {
+        assertThat(index.search("buy", 0, 1), contains(1L));
+        assertThat(index.search("buy", 1, 1), contains(2L));
+        assertThat(index.search("buy", 2, 1), is(empty()));
+    }
+
+    @Test
+    void shouldApplyChanges() {
+        index.add(task(4L, "wine", "buy red wine"));
+        index.update(2L, new TaskEntity.Builder().setName("cider").build());
+        index.update(1L, new TaskEntity.Builder().setDescription("eat donuts").build());
+        index.remove(3L);
+
+        assertThat(index.search("wine", 0, 10), contains(4L));
+        assertThat(index.search("cider duff", 0, 10), contains(2L));
+        assertThat(index.search("buy", 0, 10), contains(4L, 2L));
+        assertThat(index.search("work", 0, 10), is(empty()));
+        assertThat(index.size(), is(equalTo(3)));
+    }
+
+    private static TaskEntity task(Long id, String name, String description) {
+        return new TaskEntity.Builder().setId(id).setUserId(1L).setName(name).setDescription(description).build();
+    }
+}
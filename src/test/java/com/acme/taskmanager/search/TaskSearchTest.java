@@ -0,0 +1,92 @@
+package com.acme.taskmanager.search;
+
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.type.TaskChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link TaskSearch}.
+ */
+class TaskSearchTest {
+    private static final Long USER_ID = 1L;
+    private static final TaskEntity DONUT = task(2L, "donut", "buy donuts");
+    private static final TaskEntity BEER = task(3L, "beer", "buy beer");
+
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    public void setup() {
+        taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findAllByUserId(USER_ID)).thenReturn(Flux.just(DONUT, BEER));
+        when(taskRepository.findAllByUserIdAndIdIn(eq(USER_ID), anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(List.of(DONUT, BEER))
+                        .filter(task -> invocation.<List<Long>>getArgument(1).contains(task.getId())));
+    }
+
+    @Test
+    void shouldSearchFullTextIndexOfDatabase() {
+        when(taskRepository.hasFullTextIndex()).thenReturn(Mono.just(true));
+        when(taskRepository.searchByUserId(USER_ID, "beer", 0, 10)).thenReturn(Flux.just(BEER));
+        var taskSearch = taskSearch(true);
+
+        StepVerifier.create(taskSearch.search(USER_ID, "beer", 0, 10)).expectNext(BEER).verifyComplete();
+        StepVerifier.create(taskSearch.search(USER_ID, "beer", 0, 10)).expectNext(BEER).verifyComplete();
+
+        verify(taskRepository).hasFullTextIndex();
+        verify(taskRepository, never()).findAllByUserId(USER_ID);
+    }
+
+    @Test
+    void shouldFallBackToInProcessIndexWithoutFullTextIndex() {
+        when(taskRepository.hasFullTextIndex()).thenReturn(Mono.just(false));
+        var taskSearch = taskSearch(true);
+
+        StepVerifier.create(taskSearch.search(USER_ID, "beer", 0, 10)).expectNext(BEER).verifyComplete();
+        StepVerifier.create(taskSearch.search(USER_ID, "buy beer", 0, 10)).expectNext(BEER, DONUT).verifyComplete();
+
+        verify(taskRepository).hasFullTextIndex();
+        verify(taskRepository).findAllByUserId(USER_ID);
+        verify(taskRepository, never()).searchByUserId(eq(USER_ID), eq("beer"), eq(0L), eq(10));
+    }
+
+    @Test
+    void shouldKeepInProcessIndexInSyncWithTaskChanges() {
+        var taskSearch = taskSearch(false);
+        StepVerifier.create(taskSearch.search(USER_ID, "donuts", 0, 10)).expectNext(DONUT).verifyComplete();
+
+        taskSearch.onTaskChange(new TaskChangeEvent(TaskChangeType.UPDATED, USER_ID, DONUT.getId(),
+                new TaskEntity.Builder().setDescription("eat").build()));
+        taskSearch.onTaskChange(new TaskChangeEvent(TaskChangeType.DELETED, USER_ID, BEER.getId(), null));
+
+        StepVerifier.create(taskSearch.search(USER_ID, "donuts", 0, 10)).verifyComplete();
+        StepVerifier.create(taskSearch.search(USER_ID, "eat beer", 0, 10)).expectNext(DONUT).verifyComplete();
+        verify(taskRepository, times(1)).findAllByUserId(USER_ID);
+        verify(taskRepository, never()).hasFullTextIndex();
+    }
+
+    private TaskSearch taskSearch(boolean fullText) {
+        return new TaskSearch(taskRepository, new SimpleMeterRegistry(), fullText, 100, Duration.ofMinutes(5));
+    }
+
+    private static TaskEntity task(Long id, String name, String description) {
+        return new TaskEntity.Builder().setId(id).setUserId(USER_ID).setName(name).setDescription(description).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.TaskManagerApplication;
+import com.acme.taskmanager.repository.LeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Test for {@link ExpiredTaskSweeper} running on several nodes, which share one embedded database.
+ */
+class ExpiredTaskSweeperClusterTest {
+    private static final int NODES = 3;
+    private static final int EXPIRED_TASKS = 250;
+    private static final Duration LEASE_TTL = Duration.ofSeconds(1);
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    public void setup() {
+        var database = "sweeper-" + UUID.randomUUID();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SpringApplicationBuilder(TaskManagerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run("--spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=" + H2_OPTIONS,
+                            "--spring.r2dbc.username=sa",
+                            "--spring.r2dbc.password=",
+                            "--spring.flyway.enabled=true",
+                            "--spring.flyway.url=jdbc:h2:mem:" + database + ";" + H2_OPTIONS,
+                            "--spring.flyway.user=sa",
+                            "--spring.flyway.password=",
+                            "--expired-task-scheduler.chunk-size=100",
+                            "--expired-task-scheduler.lease-ttl=" + LEASE_TTL.toMillis() + "ms"));
+        }
+        databaseClient = nodes.get(0).getBean(DatabaseClient.class);
+        databaseClient.sql("INSERT INTO user (username) VALUES ('homer')").then().block();
+        Flux.range(0, EXPIRED_TASKS)
+                .concatMap(i -> databaseClient.sql("INSERT INTO task (user_id, name, date_time) "
+                                + "SELECT id, :name, TIMESTAMP '2000-01-01 00:00:00' FROM user")
+                        .bind("name", "task" + i)
+                        .then())
+                .blockLast();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void shouldSweepOnSingleNode() {
+        var counts = Flux.fromIterable(nodes)
+                .flatMap(node -> node.getBean(ExpiredTaskSweeper.class).sweep().defaultIfEmpty(-1))
+                .collectList()
+                .block();
+
+        assertThat(counts.stream().filter(count -> count >= 0).collect(Collectors.toList()), contains(EXPIRED_TASKS));
+        assertThat(countPendingTasks(), is(equalTo(0L)));
+    }
+
+    @Test
+    void shouldHandOverLeaseOnShutdown() {
+        StepVerifier.create(sweeper(0).sweep()).expectNext(EXPIRED_TASKS).verifyComplete();
+        StepVerifier.create(sweeper(1).sweep()).verifyComplete();
+
+        nodes.get(0).close();
+
+        StepVerifier.create(sweeper(1).sweep()).expectNext(0).verifyComplete();
+    }
+
+    @Test
+    void shouldTakeOverExpiredLease() throws InterruptedException {
+        StepVerifier.create(sweeper(0).sweep()).expectNext(EXPIRED_TASKS).verifyComplete();
+        StepVerifier.create(sweeper(1).sweep()).verifyComplete();
+
+        Thread.sleep(LEASE_TTL.toMillis() + 100);
+
+        StepVerifier.create(sweeper(1).sweep()).expectNext(0).verifyComplete();
+        StepVerifier.create(sweeper(0).sweep()).verifyComplete();
+    }
+
+    @Test
+    void shouldRenewLeaseUntilSameTime() {
+        var leaseRepository = nodes.get(0).getBean(LeaseRepository.class);
+        var now = LocalDateTime.now();
+        var expiresAt = now.plusMinutes(1);
+
+        StepVerifier.create(leaseRepository.tryAcquire("renewal", "node-0", now, expiresAt))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(leaseRepository.tryAcquire("renewal", "node-0", now, expiresAt))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(leaseRepository.tryAcquire("renewal", "node-1", now, expiresAt))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    private ExpiredTaskSweeper sweeper(int node) {
+        return nodes.get(node).getBean(ExpiredTaskSweeper.class);
+    }
+
+    private Long countPendingTasks() {
+        return databaseClient.sql("SELECT COUNT(*) AS pending FROM task WHERE status = 'PENDING'")
+                .map((row, metadata) -> row.get("pending", Long.class))
+                .one()
+                .block();
+    }
+}
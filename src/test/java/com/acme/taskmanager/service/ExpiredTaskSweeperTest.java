@@ -0,0 +1,152 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.repository.LeaseRepository;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link ExpiredTaskSweeper}.
+ */
+class ExpiredTaskSweeperTest {
+    private static final Duration EXPIRATION = Duration.ofDays(30);
+
+    private static final Duration LEASE_TTL = Duration.ofMinutes(2);
+
+    private TaskRepository taskRepository;
+    private LeaseRepository leaseRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        taskRepository = mock(TaskRepository.class);
+        leaseRepository = mock(LeaseRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(taskRepository.countPendingTasksBeforeDateTime(any())).thenReturn(Mono.just(0L));
+        when(leaseRepository.tryAcquire(anyString(), anyString(), any(), any())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void shouldDrainBacklogUntilPartialChunk() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 100, 100, Duration.ofMinutes(1), LEASE_TTL);
+        when(taskRepository.countPendingTasksBeforeDateTime(any())).thenReturn(Mono.just(203L));
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(100)))
+                .thenReturn(Mono.just(100))
+                .thenReturn(Mono.just(100))
+                .thenReturn(Mono.just(3));
+
+        StepVerifier.create(sweeper.sweep()).expectNext(203).verifyComplete();
+
+        verify(taskRepository, times(3)).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(100));
+        assertThat(meterRegistry.get("expired.tasks.backlog").gauge().value(), is(equalTo(203.0)));
+        assertThat(meterRegistry.get("expired.tasks.swept").summary().totalAmount(), is(equalTo(203.0)));
+        assertThat(meterRegistry.get("expired.tasks.sweep").timer().count(), is(equalTo(1L)));
+    }
+
+    @Test
+    void shouldNotOverlapSweeps() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 10, 1000, Duration.ofMinutes(1), LEASE_TTL);
+        var pendingChunk = Sinks.<Integer>one();
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), anyInt()))
+                .thenReturn(pendingChunk.asMono())
+                .thenReturn(Mono.just(0));
+
+        var running = sweeper.sweep().subscribe();
+        StepVerifier.create(sweeper.sweep()).verifyComplete();
+        pendingChunk.tryEmitValue(5);
+        StepVerifier.create(sweeper.sweep()).expectNext(0).verifyComplete();
+
+        assertThat(running.isDisposed(), is(true));
+        verify(taskRepository, times(2)).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), anyInt());
+    }
+
+    @Test
+    void shouldGrowChunkSizeWhileStatementsAreFast() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 10, 10, 40, Duration.ofMinutes(1), LEASE_TTL);
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), anyInt()))
+                .thenAnswer(invocation -> Mono.just(invocation.<Integer>getArgument(2)))
+                .thenAnswer(invocation -> Mono.just(invocation.<Integer>getArgument(2)))
+                .thenAnswer(invocation -> Mono.just(invocation.<Integer>getArgument(2)))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(sweeper.sweep()).expectNext(71).verifyComplete();
+
+        var order = inOrder(taskRepository);
+        order.verify(taskRepository).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(10));
+        order.verify(taskRepository).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(20));
+        order.verify(taskRepository, times(2)).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(40));
+    }
+
+    @Test
+    void shouldShrinkChunkSizeWhenStatementsAreSlow() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 30, 100, Duration.ofNanos(1), LEASE_TTL);
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), anyInt()))
+                .thenAnswer(invocation -> Mono.just(0).delayElement(Duration.ofMillis(1)));
+
+        StepVerifier.create(sweeper.sweep()).expectNext(0).verifyComplete();
+        StepVerifier.create(sweeper.sweep()).expectNext(0).verifyComplete();
+
+        assertThat(sweeper.getChunkSize(), is(equalTo(30)));
+    }
+
+    @Test
+    void shouldNotSweepWithoutLease() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 10, 1000, Duration.ofMinutes(1), LEASE_TTL);
+        when(leaseRepository.tryAcquire(anyString(), anyString(), any(), any())).thenReturn(Mono.just(false));
+
+        StepVerifier.create(sweeper.sweep()).verifyComplete();
+
+        verify(taskRepository, never()).updatePendingTasksBeforeDateTime(any(), any(), anyInt());
+        assertThat(meterRegistry.get("expired.tasks.sweep").timer().count(), is(equalTo(1L)));
+        assertThat(meterRegistry.get("expired.tasks.swept").summary().count(), is(equalTo(0L)));
+    }
+
+    @Test
+    void shouldStopDrainingWhenLeaseIsLost() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 100, 100, Duration.ofMinutes(1), LEASE_TTL);
+        when(leaseRepository.tryAcquire(anyString(), anyString(), any(), any()))
+                .thenReturn(Mono.just(true))
+                .thenReturn(Mono.just(true))
+                .thenReturn(Mono.just(false));
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(100))).thenReturn(Mono.just(100));
+
+        StepVerifier.create(sweeper.sweep()).expectNext(100).verifyComplete();
+
+        verify(taskRepository).updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), eq(100));
+    }
+
+    @Test
+    void shouldAllowNextSweepAfterFailure() {
+        var sweeper = new ExpiredTaskSweeper(taskRepository, leaseRepository, meterRegistry, EXPIRATION, 100, 10, 1000, Duration.ofMinutes(1), LEASE_TTL);
+        when(taskRepository.updatePendingTasksBeforeDateTime(any(), eq(TaskStatus.DONE), anyInt()))
+                .thenReturn(Mono.error(new IllegalStateException("intentionally thrown for testing purposes")))
+                .thenReturn(Mono.just(2));
+
+        StepVerifier.create(sweeper.sweep()).verifyError(IllegalStateException.class);
+        StepVerifier.create(sweeper.sweep()).expectNext(2).verifyComplete();
+
+        assertThat(meterRegistry.get("expired.tasks.sweep").timer().count(), is(equalTo(2L)));
+        assertThat(meterRegistry.get("expired.tasks.swept").summary().totalAmount(), is(equalTo(2.0)));
+    }
+}
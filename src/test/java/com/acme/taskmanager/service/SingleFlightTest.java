@@ -0,0 +1,116 @@
+package com.acme.taskmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Test for {@link SingleFlight}, completing the calls by hand.
+ */
+class SingleFlightTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+    private Sinks.One<String> result;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>(meterRegistry, "getName", true);
+        result = Sinks.one();
+    }
+
+    @Test
+    void shouldShareCallInFlight() {
+        var first = singleFlight.execute(1L, this::call).cache();
+        var second = singleFlight.execute(1L, this::call).cache();
+        var other = singleFlight.execute(2L, this::call).cache();
+        first.subscribe();
+        second.subscribe();
+        other.subscribe();
+
+        result.tryEmitValue("homer");
+
+        StepVerifier.create(first).expectNext("homer").verifyComplete();
+        StepVerifier.create(second).expectNext("homer").verifyComplete();
+        StepVerifier.create(other).expectNext("homer").verifyComplete();
+        assertThat(calls.get(), is(equalTo(2)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+        assertThat(meterRegistry.get("request.coalesced").tag("operation", "getName").counter().count(),
+                is(equalTo(1.0)));
+    }
+
+    @Test
+    void shouldShareErrorOfCallInFlight() {
+        var first = singleFlight.execute(1L, this::call).cache();
+        var second = singleFlight.execute(1L, this::call).cache();
+        first.subscribe(name -> { }, error -> { });
+        second.subscribe(name -> { }, error -> { });
+
+        result.tryEmitError(new IllegalStateException("failed"));
+
+        StepVerifier.create(first).verifyError(IllegalStateException.class);
+        StepVerifier.create(second).verifyError(IllegalStateException.class);
+        assertThat(calls.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void shouldCompleteCallInFlightIfSubscribersCancel() {
+        var cancelled = new AtomicBoolean();
+        var first = singleFlight.execute(1L, () -> call().doOnCancel(() -> cancelled.set(true))).subscribe();
+        var second = singleFlight.execute(1L, this::call).subscribe();
+
+        first.dispose();
+        second.dispose();
+        assertThat(cancelled.get(), is(false));
+        assertThat(singleFlight.size(), is(equalTo(1)));
+
+        var third = singleFlight.execute(1L, this::call).cache();
+        third.subscribe();
+        result.tryEmitValue("homer");
+
+        StepVerifier.create(third).expectNext("homer").verifyComplete();
+        assertThat(calls.get(), is(equalTo(1)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldCallAgainOnceCompleted() {
+        result.tryEmitValue("homer");
+
+        StepVerifier.create(singleFlight.execute(1L, this::call)).expectNext("homer").verifyComplete();
+        StepVerifier.create(singleFlight.execute(1L, this::call)).expectNext("homer").verifyComplete();
+
+        assertThat(calls.get(), is(equalTo(2)));
+    }
+
+    @Test
+    void shouldNotShareCallsIfDisabled() {
+        var disabled = new SingleFlight<Long, String>(meterRegistry, "getName", false);
+        var first = disabled.execute(1L, this::call).cache();
+        var second = disabled.execute(1L, this::call).cache();
+        first.subscribe();
+        second.subscribe();
+
+        result.tryEmitValue("homer");
+
+        StepVerifier.create(first).expectNext("homer").verifyComplete();
+        StepVerifier.create(second).expectNext("homer").verifyComplete();
+        assertThat(calls.get(), is(equalTo(2)));
+    }
+
+    private Mono<String> call() {
+        calls.incrementAndGet();
+        return result.asMono();
+    }
+}
@@ -0,0 +1,122 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskChangeDto;
+import com.acme.taskmanager.entity.TaskEntity;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.exception.EntityNotFoundException;
+import com.acme.taskmanager.mapper.TaskMapperImpl;
+import com.acme.taskmanager.type.TaskChangeType;
+import com.acme.taskmanager.type.TaskStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link TaskChangeFeed}.
+ */
+class TaskChangeFeedTest {
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+
+    private UserEntityCache userEntityCache;
+    private SimpleMeterRegistry meterRegistry;
+    private TaskChangeFeed taskChangeFeed;
+
+    @BeforeEach
+    public void setup() {
+        userEntityCache = mock(UserEntityCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        taskChangeFeed = new TaskChangeFeed(userEntityCache, new TaskMapperImpl(), meterRegistry, 2, Duration.ofHours(1));
+        when(userEntityCache.existsById(USER_ID)).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void shouldPushChangesOfUser() {
+        StepVerifier.create(taskChangeFeed.subscribe(USER_ID))
+                .assertNext(TaskChangeFeedTest::assertHeartbeat)
+                .then(() -> {
+                    taskChangeFeed.onTaskChange(created(OTHER_USER_ID, 1L));
+                    taskChangeFeed.onTaskChange(created(USER_ID, 2L));
+                    taskChangeFeed.onTaskChange(new TaskChangeEvent(TaskChangeType.EXPIRED, USER_ID, 2L,
+                            new TaskEntity.Builder().setStatus(TaskStatus.DONE).build()));
+                    taskChangeFeed.onTaskChange(new TaskChangeEvent(TaskChangeType.DELETED, USER_ID, 2L, null));
+                })
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo("CREATED")));
+                    assertThat(event.data().getId(), is(equalTo(2L)));
+                    assertThat(event.data().getName(), is(equalTo("donut")));
+                })
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo("EXPIRED")));
+                    assertThat(event.data().getStatus(), is(equalTo(TaskStatus.DONE)));
+                })
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo("DELETED")));
+                    assertThat(event.data().getId(), is(equalTo(2L)));
+                    assertThat(event.data().getName(), is(nullValue()));
+                })
+                .thenCancel()
+                .verify();
+
+        assertThat(taskChangeFeed.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void shouldResyncSlowSubscriber() {
+        StepVerifier.create(taskChangeFeed.subscribe(USER_ID), 1)
+                .assertNext(TaskChangeFeedTest::assertHeartbeat)
+                .then(() -> LongStream.rangeClosed(1, 5)
+                        .forEach(taskId -> taskChangeFeed.onTaskChange(created(USER_ID, taskId))))
+                .thenRequest(2)
+                // the first change has been prefetched before the buffer overflowed
+                .assertNext(event -> assertThat(event.data().getId(), is(equalTo(1L))))
+                .assertNext(event -> {
+                    assertThat(event.event(), is(equalTo(TaskChangeFeed.RESYNC)));
+                    assertThat(event.data(), is(nullValue()));
+                })
+                .then(() -> taskChangeFeed.onTaskChange(created(USER_ID, 6L)))
+                .thenRequest(1)
+                .assertNext(event -> assertThat(event.data().getId(), is(equalTo(6L))))
+                .thenCancel()
+                .verify();
+
+        assertThat(meterRegistry.get("task.feed.resyncs").counter().count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void shouldNotSubscribeToUnknownUser() {
+        when(userEntityCache.existsById(OTHER_USER_ID)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(taskChangeFeed.subscribe(OTHER_USER_ID)).verifyError(EntityNotFoundException.class);
+
+        assertThat(taskChangeFeed.size(), is(equalTo(0)));
+    }
+
+    private static void assertHeartbeat(ServerSentEvent<TaskChangeDto> event) {
+        assertThat(event.comment(), is(equalTo("heartbeat")));
+        assertThat(event.event(), is(nullValue()));
+    }
+
+    private static TaskChangeEvent created(Long userId, Long taskId) {
+        return new TaskChangeEvent(TaskChangeType.CREATED, userId, taskId, new TaskEntity.Builder()
+                .setId(taskId)
+                .setUserId(userId)
+                .setName("donut")
+                .setStatus(TaskStatus.PENDING)
+                .build());
+    }
+}
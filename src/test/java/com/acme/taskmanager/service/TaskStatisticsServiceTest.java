@@ -0,0 +1,81 @@
+package com.acme.taskmanager.service;
+
+import com.acme.taskmanager.cache.UserEntityCache;
+import com.acme.taskmanager.dto.TaskStatisticsDto;
+import com.acme.taskmanager.event.TaskChangeEvent;
+import com.acme.taskmanager.repository.LeaseRepository;
+import com.acme.taskmanager.repository.TaskRepository;
+import com.acme.taskmanager.repository.TaskStatisticsRepository;
+import com.acme.taskmanager.type.TaskChangeType;
+import com.acme.taskmanager.type.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for {@link TaskStatisticsService} with the overdue counts cached.
+ */
+class TaskStatisticsServiceTest {
+    private static final Long USER_ID = 1L;
+
+    private TaskRepository taskRepository;
+    private TaskStatisticsService taskStatisticsService;
+
+    @BeforeEach
+    public void setup() {
+        taskRepository = mock(TaskRepository.class);
+        var taskStatisticsRepository = mock(TaskStatisticsRepository.class);
+        var userEntityCache = mock(UserEntityCache.class);
+        taskStatisticsService = new TaskStatisticsService(taskStatisticsRepository, taskRepository,
+                mock(LeaseRepository.class), userEntityCache, 1000L, Duration.ofMinutes(90),
+                true, 100, Duration.ofMinutes(1));
+        when(userEntityCache.existsById(USER_ID)).thenReturn(Mono.just(true));
+        when(taskStatisticsRepository.findCountsByUserId(USER_ID)).thenReturn(Mono.just(Map.of(TaskStatus.PENDING, 3L)));
+        when(taskRepository.countPendingByUserIdBeforeDateTime(eq(USER_ID), any()))
+                .thenReturn(Mono.just(2L))
+                .thenReturn(Mono.just(1L));
+    }
+
+    @Test
+    void shouldCountOverdueTasksOncePerTtl() {
+        StepVerifier.create(taskStatisticsService.getStatistics(USER_ID).map(TaskStatisticsDto::getOverdue))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(taskStatisticsService.getStatistics(USER_ID).map(TaskStatisticsDto::getOverdue))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(taskRepository, times(1)).countPendingByUserIdBeforeDateTime(eq(USER_ID), any());
+    }
+
+    @Test
+    void shouldCountOverdueTasksAgainAfterTaskChange() {
+        StepVerifier.create(taskStatisticsService.getStatistics(USER_ID).map(TaskStatisticsDto::getOverdue))
+                .expectNext(2L)
+                .verifyComplete();
+
+        taskStatisticsService.onTaskChange(new TaskChangeEvent(TaskChangeType.DELETED, USER_ID, 10L, null));
+
+        StepVerifier.create(taskStatisticsService.getStatistics(USER_ID))
+                .assertNext(statistics -> {
+                    assertThat(statistics.getOverdue(), is(equalTo(1L)));
+                    assertThat(statistics.getTotal(), is(equalTo(3L)));
+                })
+                .verifyComplete();
+        verify(taskRepository, times(2)).countPendingByUserIdBeforeDateTime(eq(USER_ID), any());
+    }
+}